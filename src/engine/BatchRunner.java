@@ -0,0 +1,110 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Runs many complete headless games in parallel, one independent GameEngine per game,
+ * and reports throughput and per-game results. No Swing and no audio are touched.
+ *
+ * <pre>
+ * java engine.BatchRunner [--games N] [--seed S] [--input bot|random|script]
+ *                         [--max-ticks T] [--threads P] [--results]
+ * </pre>
+ */
+public class BatchRunner {
+    // Presses at a human-like pace for the random and scripted inputs
+    private static final int RANDOM_INPUT_PERIOD = 8;
+    private static final int[] DEMO_SCRIPT = {
+        Input.LEFT, 0, Input.LEFT, 0, Input.HARD_DROP, 0, 0, 0,
+        Input.ROTATE, 0, Input.RIGHT, 0, Input.RIGHT, 0, Input.HARD_DROP, 0, 0, 0,
+    };
+
+    /**
+     * Plays one game from the seed until it tops out or reaches maxTicks.
+     */
+    public static GameResult play(long seed, InputSource input, long maxTicks) {
+        long start = System.nanoTime();
+        GameEngine engine = new GameEngine(seed);
+        while (!engine.isGameOver() && engine.getTick() < maxTicks) {
+            engine.tick(input.nextInput(engine));
+        }
+        return new GameResult(seed, engine.getTick(), engine.getScore(), engine.getLines(),
+                engine.getLevel(), engine.isGameOver(), System.nanoTime() - start);
+    }
+
+    /**
+     * Plays games with seeds baseSeed .. baseSeed + games - 1 on a pool of the given size.
+     * @param inputs creates the input source of a game from its seed
+     */
+    public static List<GameResult> run(int games, long baseSeed, LongFunction<InputSource> inputs,
+                                       long maxTicks, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> LongStream.range(baseSeed, baseSeed + games)
+                    .parallel()
+                    .mapToObj(seed -> play(seed, inputs.apply(seed), maxTicks))
+                    .collect(Collectors.toList()))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static LongFunction<InputSource> inputsFor(String kind) {
+        switch (kind) {
+            case "bot": return seed -> new BotInput();
+            case "random": return seed -> new RandomInput(seed, RANDOM_INPUT_PERIOD);
+            case "script": return seed -> new ScriptedInput(DEMO_SCRIPT);
+            default: throw new IllegalArgumentException("Unknown input source: " + kind);
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = 1000;
+        long seed = 1;
+        String input = "bot";
+        long maxTicks = 60L * 60 * 30; // 30 minutes of play at 60 ticks per second
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean printResults = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--input": input = args[++i]; break;
+                case "--max-ticks": maxTicks = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--results": printResults = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<GameResult> results = run(games, seed, inputsFor(input), maxTicks, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (printResults) {
+            System.out.println(GameResult.csvHeader());
+            for (GameResult result : results) {
+                System.out.println(result.toCsv());
+            }
+        }
+
+        long ticks = results.stream().mapToLong(r -> r.ticks).sum();
+        long toppedOut = results.stream().filter(r -> r.toppedOut).count();
+        int[] scores = results.stream().mapToInt(r -> r.score).toArray();
+        int[] lines = results.stream().mapToInt(r -> r.lines).toArray();
+
+        System.out.printf("Played %d games (%s input) on %d threads in %.2f s%n", games, input, threads, seconds);
+        System.out.printf("  %d ticks, %.0f ticks/s, %.1f games/s%n", ticks, ticks / seconds, games / seconds);
+        System.out.printf("  topped out: %d, stopped at %d ticks: %d%n", toppedOut, maxTicks, games - toppedOut);
+        System.out.printf("  score avg %.1f max %d, lines avg %.1f max %d%n",
+                Arrays.stream(scores).average().orElse(0), Arrays.stream(scores).max().orElse(0),
+                Arrays.stream(lines).average().orElse(0), Arrays.stream(lines).max().orElse(0));
+    }
+}
@@ -0,0 +1,132 @@
+package engine;
+
+import mino.PieceShape;
+import mino.Playfield;
+
+/**
+ * A simple placement bot. For every new mino it scores each orientation and column
+ * by the board it would leave behind (height, holes, bumpiness, cleared lines) and then
+ * steers the mino there one rotation or step per tick before hard dropping it.
+ */
+public class BotInput implements InputSource {
+    // Board evaluation weights
+    private static final double LINES_WEIGHT = 0.76;
+    private static final double HEIGHT_WEIGHT = -0.51;
+    private static final double HOLES_WEIGHT = -0.36;
+    private static final double BUMPINESS_WEIGHT = -0.18;
+
+    // Ticks to spend steering before dropping the mino wherever it is
+    private static final int GIVE_UP_TICKS = 40;
+
+    private final int[] rows = new int[Playfield.ROWS];
+    private final int[] heights = new int[Playfield.COLS];
+
+    private int plannedPiece = -1;
+    private int targetOrientation;
+    private int targetCol;
+    private int steeringTicks;
+
+    @Override
+    public int nextInput(GameEngine engine) {
+        if (engine.getPieceCount() != plannedPiece) {
+            plannedPiece = engine.getPieceCount();
+            steeringTicks = 0;
+            plan(engine);
+        }
+
+        if (++steeringTicks > GIVE_UP_TICKS) {
+            return Input.HARD_DROP;
+        }
+        if (engine.getOrientation() != targetOrientation) {
+            return Input.ROTATE;
+        }
+        if (engine.getCol() < targetCol) {
+            return Input.RIGHT;
+        }
+        if (engine.getCol() > targetCol) {
+            return Input.LEFT;
+        }
+        return Input.HARD_DROP;
+    }
+
+    private void plan(GameEngine engine) {
+        Playfield field = engine.getPlayfield();
+        PieceShape shape = engine.getCurrent();
+        double best = Double.NEGATIVE_INFINITY;
+        targetOrientation = engine.getOrientation();
+        targetCol = engine.getCol();
+
+        for (int o = 0; o < 4; o++) {
+            int minCol = -shape.left(o);
+            int maxCol = Playfield.COLS - shape.width(o) - shape.left(o);
+            for (int col = minCol; col <= maxCol; col++) {
+                if (!field.fits(shape, o, col, engine.getRow())) {
+                    continue;
+                }
+                int landing = field.dropRow(shape, o, col, engine.getRow());
+                double score = evaluate(field, shape, o, col, landing);
+                if (score > best) {
+                    best = score;
+                    targetOrientation = o;
+                    targetCol = col;
+                }
+            }
+        }
+    }
+
+    // Scores the board left behind after locking the shape at (col, row)
+    private double evaluate(Playfield field, PieceShape shape, int o, int col, int row) {
+        for (int r = 0; r < Playfield.ROWS; r++) {
+            rows[r] = field.getRow(r);
+        }
+        for (int i = 0; i < 4; i++) {
+            int r = row + shape.dy(o, i);
+            if (r < 0) {
+                // Locking above the top ends the game
+                return Double.NEGATIVE_INFINITY;
+            }
+            rows[r] |= 1 << (col + shape.dx(o, i));
+        }
+
+        // Drop full rows by compacting the rest downwards
+        int lines = 0;
+        int write = Playfield.ROWS - 1;
+        for (int r = Playfield.ROWS - 1; r >= 0; r--) {
+            if (rows[r] == Playfield.FULL_MASK) {
+                lines++;
+            } else {
+                rows[write--] = rows[r];
+            }
+        }
+        while (write >= 0) {
+            rows[write--] = 0;
+        }
+
+        int aggregateHeight = 0;
+        int holes = 0;
+        int bumpiness = 0;
+        for (int c = 0; c < Playfield.COLS; c++) {
+            int bit = 1 << c;
+            int top = Playfield.ROWS;
+            for (int r = 0; r < Playfield.ROWS; r++) {
+                if ((rows[r] & bit) != 0) {
+                    if (top == Playfield.ROWS) {
+                        top = r;
+                    }
+                } else if (top != Playfield.ROWS) {
+                    holes++;
+                }
+            }
+            heights[c] = Playfield.ROWS - top;
+            aggregateHeight += heights[c];
+            if (c > 0) {
+                bumpiness += Math.abs(heights[c] - heights[c - 1]);
+            }
+        }
+
+        return LINES_WEIGHT * lines
+                + HEIGHT_WEIGHT * aggregateHeight
+                + HOLES_WEIGHT * holes
+                + BUMPINESS_WEIGHT * bumpiness;
+    }
+}
@@ -0,0 +1,530 @@
+package engine;
+
+import mino.PieceShape;
+import mino.Playfield;
+
+/**
+ * One game of SWING & STACK, without any Swing, AWT or static state.
+ * The game advances one tick at a time from the input bits of that tick,
+ * and reports what happened through {@link #getEvents()} so the caller can
+ * play sounds and effects. Everything is in playfield cells, not pixels.
+ */
+public class GameEngine {
+    // Rules
+    public static final int START_DROP_INTERVAL = 90;
+    public static final int LINES_PER_LEVEL = 10;
+    public static final int SPEED_DECREASE_PER_LEVEL = 10;
+    public static final int LOCK_DELAY = 45; // ticks a mino may rest on something before it locks
+    public static final int SPAWN_COL = Playfield.COLS / 2 - 1;
+    public static final int SPAWN_ROW = 0;
+
+    // Events raised during the last tick
+    public static final int EVENT_ROTATE = 1;
+    public static final int EVENT_TOUCH_FLOOR = 1 << 1;
+    public static final int EVENT_LOCK = 1 << 2;
+    public static final int EVENT_LINE_CLEAR = 1 << 3;
+    public static final int EVENT_LEVEL_UP = 1 << 4;
+    public static final int EVENT_GAME_OVER = 1 << 5;
+
+    private static final PieceShape[] SHAPES = PieceShape.values();
+
+    private final Playfield playfield = new Playfield();
+    private final PieceRandom random = new PieceRandom(0);
+    private long seed;
+
+    // 7-bag of shape ordinals
+    private final byte[] bag = new byte[SHAPES.length];
+    private int bagIndex;
+
+    // Current mino
+    private PieceShape current;
+    private int orientation;
+    private int col;
+    private int row;
+    private int autoDropCounter;
+    private boolean deactivating;
+    private int deactivateCounter;
+    private boolean active;
+    private int pieceVersion; // bumped whenever the current mino moves, rotates or is replaced
+    private int pieceCount; // bumped whenever a mino is put at the spawn position
+
+    private PieceShape next;
+    private PieceShape hold;
+    private boolean canHold;
+
+    // Ghost landing row, cached until the mino or the playfield changes
+    private int ghostRow;
+    private int ghostPieceVersion = -1;
+    private int ghostFieldVersion = -1;
+
+    // Score
+    private int dropInterval;
+    private int level;
+    private int lines;
+    private int score;
+    private boolean gameOver;
+    private long tick;
+
+    // Results of the last tick
+    private int events;
+    private int clearedRows;
+
+    public GameEngine() {
+        this(System.nanoTime());
+    }
+
+    public GameEngine(long seed) {
+        reset(seed);
+    }
+
+    /**
+     * Starts a new game on this engine, seeded from the previous one so that
+     * a session of games stays reproducible from the first seed.
+     */
+    public void reset() {
+        reset(random.nextLong());
+    }
+
+    /** Starts a new game whose minos depend only on the seed. */
+    public void reset(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+        playfield.clear();
+        level = 1;
+        lines = 0;
+        score = 0;
+        dropInterval = START_DROP_INTERVAL;
+        gameOver = false;
+        tick = 0;
+        events = 0;
+        clearedRows = 0;
+
+        bagIndex = bag.length;
+        hold = null;
+        next = pickShape();
+        spawn();
+    }
+
+    /**
+     * Advances the game by one tick.
+     * @param input the {@link Input} bits pressed for this tick
+     */
+    public void tick(int input) {
+        events = 0;
+        clearedRows = 0;
+        if (gameOver) {
+            return;
+        }
+        tick++;
+
+        if ((input & Input.HOLD) != 0 && canHold) {
+            holdCurrent();
+        }
+
+        if ((input & Input.HARD_DROP) != 0) {
+            hardDrop();
+            return;
+        }
+
+        if (!active) {
+            lockCurrent();
+        } else {
+            updateCurrent(input);
+        }
+    }
+
+    private void updateCurrent(int input) {
+        if (deactivating) {
+            deactivateCounter++;
+
+            // Wait until the lock delay is over, then lock if the bottom is still hitting
+            if (deactivateCounter == LOCK_DELAY) {
+                deactivateCounter = 0;
+                if (!fits(orientation, col, row + 1)) {
+                    active = false;
+                }
+            }
+        }
+
+        if ((input & Input.ROTATE) != 0) {
+            rotate();
+            events |= EVENT_ROTATE;
+        }
+
+        boolean leftCollision = !fits(orientation, col - 1, row);
+        boolean rightCollision = !fits(orientation, col + 1, row);
+        boolean bottomCollision = !fits(orientation, col, row + 1);
+
+        if ((input & Input.DOWN) != 0 && !bottomCollision) {
+            moveTo(col, row + 1);
+            // When moved down, reset the autoDropCounter
+            autoDropCounter = 0;
+        }
+        if ((input & Input.LEFT) != 0 && !leftCollision) {
+            moveTo(col - 1, row);
+        }
+        if ((input & Input.RIGHT) != 0 && !rightCollision) {
+            moveTo(col + 1, row);
+        }
+
+        if (bottomCollision) {
+            if (!deactivating) {
+                events |= EVENT_TOUCH_FLOOR;
+            }
+            deactivating = true;
+        } else {
+            autoDropCounter++;
+            if (autoDropCounter >= dropInterval) {
+                moveTo(col, row + 1);
+                autoDropCounter = 0;
+            }
+        }
+    }
+
+    // Rotates clockwise, trying the shape's wall kicks in order
+    private boolean rotate() {
+        int to = (orientation + 1) & 3;
+        for (int[] kick : current.kicks(orientation)) {
+            if (fits(to, col + kick[0], row + kick[1])) {
+                orientation = to;
+                moveTo(col + kick[0], row + kick[1]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void hardDrop() {
+        events |= EVENT_TOUCH_FLOOR;
+        moveTo(col, getGhostRow());
+        lockCurrent();
+    }
+
+    private void holdCurrent() {
+        if (hold == null) {
+            hold = current;
+            spawn();
+        } else {
+            PieceShape temp = current;
+            current = hold;
+            hold = temp;
+            placeAtSpawn();
+        }
+        canHold = false;
+    }
+
+    private void lockCurrent() {
+        int touched = lockCells();
+        events |= EVENT_LOCK;
+
+        // A mino that locks at the spawn position means the stack reached the top
+        if (col == SPAWN_COL && row == SPAWN_ROW) {
+            endGame();
+            return;
+        }
+
+        checkDelete(touched);
+        spawn();
+    }
+
+    private int lockCells() {
+        int touched = 0;
+        byte color = current.colorId;
+        for (int i = 0; i < 4; i++) {
+            int c = col + current.dx(orientation, i);
+            int r = row + current.dy(orientation, i);
+            touched |= playfield.lock(c, r, color);
+        }
+        return touched;
+    }
+
+    private void checkDelete(int touchedRows) {
+        // Only the rows the mino touched can have become full
+        int cleared = playfield.clearFullRows(touchedRows);
+        if (cleared == 0) {
+            return;
+        }
+        clearedRows = cleared;
+        events |= EVENT_LINE_CLEAR;
+
+        int lineCount = Integer.bitCount(cleared);
+        for (int i = 0; i < lineCount; i++) {
+            lines++;
+            if (lines % LINES_PER_LEVEL == 0 && dropInterval >= 10) {
+                level++;
+                if (dropInterval > SPEED_DECREASE_PER_LEVEL * 2) {
+                    dropInterval -= SPEED_DECREASE_PER_LEVEL;
+                } else {
+                    dropInterval -= 1;
+                }
+                events |= EVENT_LEVEL_UP;
+            }
+        }
+
+        int singleLineScore = 50 * level;
+        score += singleLineScore * lineCount;
+    }
+
+    private void spawn() {
+        current = next;
+        next = pickShape();
+        canHold = true;
+        placeAtSpawn();
+
+        if (!fits(orientation, col, row)) {
+            endGame();
+        }
+    }
+
+    private void placeAtSpawn() {
+        orientation = 0;
+        col = SPAWN_COL;
+        row = SPAWN_ROW;
+        active = true;
+        deactivating = false;
+        deactivateCounter = 0;
+        autoDropCounter = 0;
+        pieceVersion++;
+        pieceCount++;
+    }
+
+    private void moveTo(int newCol, int newRow) {
+        col = newCol;
+        row = newRow;
+        pieceVersion++;
+    }
+
+    private void endGame() {
+        gameOver = true;
+        events |= EVENT_GAME_OVER;
+    }
+
+    private PieceShape pickShape() {
+        if (bagIndex == bag.length) {
+            refillBag();
+        }
+        return SHAPES[bag[bagIndex++]];
+    }
+
+    private void refillBag() {
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = (byte) i;
+        }
+        // Fisher-Yates shuffle
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte t = bag[i];
+            bag[i] = bag[j];
+            bag[j] = t;
+        }
+        bagIndex = 0;
+    }
+
+    private boolean fits(int o, int c, int r) {
+        return playfield.fits(current, o, c, r);
+    }
+
+    /**
+     * Hash of everything that decides how the game continues: the board, the minos,
+     * the bag and generator state, counters and score. Used to verify replays.
+     */
+    public int stateHash() {
+        int h = playfield.contentHash();
+        h = 31 * h + current.ordinal();
+        h = 31 * h + orientation;
+        h = 31 * h + col;
+        h = 31 * h + row;
+        h = 31 * h + next.ordinal();
+        h = 31 * h + (hold == null ? -1 : hold.ordinal());
+        h = 31 * h + (canHold ? 1 : 0);
+        h = 31 * h + autoDropCounter;
+        h = 31 * h + deactivateCounter;
+        h = 31 * h + (deactivating ? 1 : 0);
+        h = 31 * h + (active ? 1 : 0);
+        h = 31 * h + bagIndex;
+        for (byte shape : bag) {
+            h = 31 * h + shape;
+        }
+        h = 31 * h + Long.hashCode(random.getState());
+        h = 31 * h + dropInterval;
+        h = 31 * h + level;
+        h = 31 * h + lines;
+        h = 31 * h + score;
+        return h;
+    }
+
+    /**
+     * Writes the complete state of the game, enough for {@link #readState} to continue
+     * it tick for tick. Used for replay keyframes.
+     */
+    void writeState(ReplayFormat.VarintWriter out) {
+        out.putVarint(tick);
+        out.putVarint(seed);
+        out.putVarint(random.getState());
+        out.putVarint(bagIndex);
+        for (byte shape : bag) {
+            out.putVarint(shape);
+        }
+        out.putVarint(current.ordinal());
+        out.putVarint(orientation);
+        out.putVarint(ReplayFormat.zigzag(col));
+        out.putVarint(ReplayFormat.zigzag(row));
+        out.putVarint(next.ordinal());
+        out.putVarint(hold == null ? 0 : hold.ordinal() + 1);
+        out.putVarint((canHold ? 1 : 0) | (active ? 2 : 0) | (deactivating ? 4 : 0) | (gameOver ? 8 : 0));
+        out.putVarint(autoDropCounter);
+        out.putVarint(deactivateCounter);
+        out.putVarint(dropInterval);
+        out.putVarint(level);
+        out.putVarint(lines);
+        out.putVarint(score);
+        out.putVarint(pieceCount);
+
+        // Row masks, then the color of every filled cell in row-major order
+        for (int r = 0; r < Playfield.ROWS; r++) {
+            out.putVarint(playfield.getRow(r));
+        }
+        for (int r = 0; r < Playfield.ROWS; r++) {
+            int bits = playfield.getRow(r);
+            while (bits != 0) {
+                int c = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                out.putVarint(playfield.getColor(c, r));
+            }
+        }
+    }
+
+    /** Restores a state written by {@link #writeState}. */
+    void readState(ReplayFormat.VarintReader in) {
+        tick = in.getVarint();
+        seed = in.getVarint();
+        random.setState(in.getVarint());
+        bagIndex = (int) in.getVarint();
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = (byte) in.getVarint();
+        }
+        current = SHAPES[(int) in.getVarint()];
+        orientation = (int) in.getVarint();
+        col = ReplayFormat.unzigzag(in.getVarint());
+        row = ReplayFormat.unzigzag(in.getVarint());
+        next = SHAPES[(int) in.getVarint()];
+        int held = (int) in.getVarint();
+        hold = held == 0 ? null : SHAPES[held - 1];
+        int flags = (int) in.getVarint();
+        canHold = (flags & 1) != 0;
+        active = (flags & 2) != 0;
+        deactivating = (flags & 4) != 0;
+        gameOver = (flags & 8) != 0;
+        autoDropCounter = (int) in.getVarint();
+        deactivateCounter = (int) in.getVarint();
+        dropInterval = (int) in.getVarint();
+        level = (int) in.getVarint();
+        lines = (int) in.getVarint();
+        score = (int) in.getVarint();
+        pieceCount = (int) in.getVarint();
+
+        int[] rows = new int[Playfield.ROWS];
+        for (int r = 0; r < Playfield.ROWS; r++) {
+            rows[r] = (int) in.getVarint();
+        }
+        playfield.clear();
+        for (int r = 0; r < Playfield.ROWS; r++) {
+            int bits = rows[r];
+            while (bits != 0) {
+                int c = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                playfield.lock(c, r, (byte) in.getVarint());
+            }
+        }
+
+        events = 0;
+        clearedRows = 0;
+        pieceVersion++;
+    }
+
+    /** Row the current mino's pivot would land on, recomputed only after it or the playfield changes. */
+    public int getGhostRow() {
+        if (ghostPieceVersion != pieceVersion || ghostFieldVersion != playfield.getVersion()) {
+            ghostRow = playfield.dropRow(current, orientation, col, row);
+            ghostPieceVersion = pieceVersion;
+            ghostFieldVersion = playfield.getVersion();
+        }
+        return ghostRow;
+    }
+
+    /** Seed the current game was started from. */
+    public long getSeed() {
+        return seed;
+    }
+
+    public Playfield getPlayfield() {
+        return playfield;
+    }
+
+    public PieceShape getCurrent() {
+        return current;
+    }
+
+    public int getOrientation() {
+        return orientation;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getPieceVersion() {
+        return pieceVersion;
+    }
+
+    /** Number of minos put at the spawn position so far, including ones swapped in from hold. */
+    public int getPieceCount() {
+        return pieceCount;
+    }
+
+    public PieceShape getNext() {
+        return next;
+    }
+
+    public PieceShape getHold() {
+        return hold;
+    }
+
+    public int getDropInterval() {
+        return dropInterval;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /** EVENT_* bits raised during the last tick. */
+    public int getEvents() {
+        return events;
+    }
+
+    /** Rows cleared during the last tick, indexed as they were before the clear. */
+    public int getClearedRows() {
+        return clearedRows;
+    }
+}
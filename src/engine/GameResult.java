@@ -0,0 +1,32 @@
+package engine;
+
+/**
+ * Outcome of one headless game.
+ */
+public class GameResult {
+    public final long seed;
+    public final long ticks;
+    public final int score;
+    public final int lines;
+    public final int level;
+    public final boolean toppedOut; // false when the game was stopped at the tick limit
+    public final long nanos;
+
+    public GameResult(long seed, long ticks, int score, int lines, int level, boolean toppedOut, long nanos) {
+        this.seed = seed;
+        this.ticks = ticks;
+        this.score = score;
+        this.lines = lines;
+        this.level = level;
+        this.toppedOut = toppedOut;
+        this.nanos = nanos;
+    }
+
+    public static String csvHeader() {
+        return "seed,ticks,score,lines,level,toppedOut,micros";
+    }
+
+    public String toCsv() {
+        return seed + "," + ticks + "," + score + "," + lines + "," + level + "," + toppedOut + "," + nanos / 1000;
+    }
+}
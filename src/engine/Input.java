@@ -0,0 +1,19 @@
+package engine;
+
+/**
+ * Input bits passed to {@link GameEngine#tick(int)}.
+ * Every bit is one press; the engine acts on it once in the tick it is given.
+ */
+public final class Input {
+
+    public static final int ROTATE = 1;
+    public static final int LEFT = 1 << 1;
+    public static final int RIGHT = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int HARD_DROP = 1 << 4;
+    public static final int HOLD = 1 << 5;
+
+    public static final int ALL = ROTATE | LEFT | RIGHT | DOWN | HARD_DROP | HOLD;
+
+    private Input() {}
+}
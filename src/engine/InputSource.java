@@ -0,0 +1,13 @@
+package engine;
+
+/**
+ * Supplies the input of every tick for a headless game.
+ */
+public interface InputSource {
+
+    /**
+     * Returns the {@link Input} bits for the next tick.
+     * @param engine the game about to be ticked, for sources that react to the board
+     */
+    int nextInput(GameEngine engine);
+}
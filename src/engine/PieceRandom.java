@@ -0,0 +1,33 @@
+package engine;
+
+/**
+ * SplitMix64 generator used for the 7-bag. Unlike java.util.Random its algorithm is fixed
+ * here and its whole state is one long, so a game can be replayed, hashed and snapshotted.
+ */
+public class PieceRandom {
+    private long state;
+
+    public PieceRandom(long seed) {
+        state = seed;
+    }
+
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Returns a value in [0, bound). */
+    public int nextInt(int bound) {
+        return (int) ((nextLong() >>> 1) % bound);
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,28 @@
+package engine;
+
+import java.util.Random;
+
+/**
+ * Presses a random control on roughly one tick in {@code period}.
+ */
+public class RandomInput implements InputSource {
+    private static final int[] CONTROLS = {
+        Input.ROTATE, Input.LEFT, Input.RIGHT, Input.DOWN, Input.HARD_DROP, Input.HOLD
+    };
+
+    private final Random random;
+    private final int period;
+
+    public RandomInput(long seed, int period) {
+        this.random = new Random(seed);
+        this.period = period;
+    }
+
+    @Override
+    public int nextInput(GameEngine engine) {
+        if (random.nextInt(period) != 0) {
+            return 0;
+        }
+        return CONTROLS[random.nextInt(CONTROLS.length)];
+    }
+}
@@ -0,0 +1,53 @@
+package engine;
+
+/**
+ * Layout of replay files.
+ *
+ * <pre>
+ * header:  'S' 'S' 'R' 'P', version byte, seed (8 bytes, big-endian),
+ *          varints: start drop interval, lines per level, speed decrease per level,
+ *          lock delay, hash interval, keyframe interval
+ * records: varint tag = (ticks since previous record &lt;&lt; 2) | type, then
+ *          INPUT     varint Input bits pressed on that tick
+ *          HASH      4 byte GameEngine.stateHash() after that tick
+ *          KEYFRAME  varint length, then the engine state after that tick as varints
+ *          END       nothing; the tick is the last one of the game
+ * </pre>
+ *
+ * Varints are little-endian base-128. Ticks count from 1, the first tick after reset.
+ */
+public final class ReplayFormat {
+    public static final byte[] MAGIC = {'S', 'S', 'R', 'P'};
+    public static final int VERSION = 2;
+
+    public static final int RECORD_INPUT = 0;
+    public static final int RECORD_HASH = 1;
+    public static final int RECORD_END = 2;
+    public static final int RECORD_KEYFRAME = 3;
+    public static final int TYPE_BITS = 2;
+    public static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    public static final int DEFAULT_HASH_INTERVAL = 300;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 1800;
+
+    private ReplayFormat() {}
+
+    /** Destination for the varints of an engine state. */
+    interface VarintWriter {
+        void putVarint(long value);
+    }
+
+    /** Source of the varints of an engine state. */
+    interface VarintReader {
+        long getVarint();
+    }
+
+    // Zigzag encoding keeps small negative numbers (such as a row above the top) short
+    static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static int unzigzag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+}
@@ -0,0 +1,298 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Re-simulates a replay file on its own GameEngine.
+ * The file is memory-mapped and indexed once on open, so seeking restores the nearest
+ * keyframe at or before the target and only plays the ticks after it.
+ */
+public class ReplayPlayer {
+    private final ByteBuffer data;
+    private final long seed;
+    private final int hashInterval;
+    private final int keyframeInterval;
+    private final int bodyStart;
+    // Where the last complete record ends; anything after it is ignored
+    private int bodyEnd;
+    private final GameEngine engine;
+    private final ReplayFormat.VarintReader reader = this::getVarint;
+
+    // Keyframe index: tick, and offset of the engine state in the file
+    private long[] keyframeTicks = new long[16];
+    private int[] keyframeStates = new int[16];
+    private int[] keyframeEnds = new int[16];
+    private int keyframeCount;
+    private long endTick;
+
+    // Playback cursor: offset of the next unread record and the tick of the last one read
+    private int position;
+    private long cursorTick;
+    private int hashMismatches;
+
+    public static ReplayPlayer open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ReplayPlayer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public ReplayPlayer(ByteBuffer data) throws IOException {
+        this.data = data;
+        for (byte b : ReplayFormat.MAGIC) {
+            if (!data.hasRemaining() || data.get() != b) {
+                throw new IOException("Not a replay file");
+            }
+        }
+        need(1);
+        int version = data.get();
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        need(8);
+        seed = data.getLong();
+        if (readVarint() != GameEngine.START_DROP_INTERVAL
+                || readVarint() != GameEngine.LINES_PER_LEVEL
+                || readVarint() != GameEngine.SPEED_DECREASE_PER_LEVEL
+                || readVarint() != GameEngine.LOCK_DELAY) {
+            throw new IOException("Replay was recorded with different rules");
+        }
+        hashInterval = (int) readVarint();
+        keyframeInterval = (int) readVarint();
+        bodyStart = data.position();
+
+        engine = new GameEngine(seed);
+        index();
+        rewind();
+    }
+
+    // Walks all records once to find the keyframes and the last tick, and checks that every
+    // record is complete, so playback can read them without checking again
+    private void index() throws IOException {
+        data.position(bodyStart);
+        bodyEnd = bodyStart;
+        long tick = 0;
+        while (data.hasRemaining()) {
+            long tag = readVarint();
+            tick += tag >>> ReplayFormat.TYPE_BITS;
+            int type = (int) (tag & ReplayFormat.TYPE_MASK);
+            if (type == ReplayFormat.RECORD_INPUT) {
+                readVarint();
+            } else if (type == ReplayFormat.RECORD_HASH) {
+                need(4);
+                data.position(data.position() + 4);
+            } else if (type == ReplayFormat.RECORD_KEYFRAME) {
+                long length = readVarint();
+                if (length > data.remaining()) {
+                    throw new IOException("Truncated replay: keyframe at tick " + tick + " runs past the end");
+                }
+                int state = data.position();
+                int end = state + (int) length;
+                checkKeyframe(tick, end);
+                addKeyframe(tick, state, end);
+                data.position(end);
+            } else {
+                // The end record
+                break;
+            }
+            bodyEnd = data.position();
+        }
+        // A recording cut short (no end record) plays up to its last record
+        endTick = tick;
+    }
+
+    // Reads a keyframe's state into the engine (reset again after indexing) to see it is whole
+    private void checkKeyframe(long tick, int end) throws IOException {
+        try {
+            engine.readState(reader);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt replay: bad keyframe at tick " + tick, e);
+        }
+        if (data.position() != end) {
+            throw new IOException("Corrupt replay: bad keyframe at tick " + tick);
+        }
+    }
+
+    private void addKeyframe(long tick, int state, int end) {
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeStates = Arrays.copyOf(keyframeStates, keyframeCount * 2);
+            keyframeEnds = Arrays.copyOf(keyframeEnds, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeStates[keyframeCount] = state;
+        keyframeEnds[keyframeCount] = end;
+        keyframeCount++;
+    }
+
+    /** Goes back to the start of the game. */
+    public void rewind() {
+        engine.reset(seed);
+        position = bodyStart;
+        cursorTick = 0;
+    }
+
+    public boolean isFinished() {
+        return engine.getTick() >= endTick || engine.isGameOver();
+    }
+
+    /**
+     * Plays the next tick with its recorded input and checks any state hash recorded after it.
+     * Returns false when the replay is already at its end.
+     */
+    public boolean step() {
+        if (isFinished()) {
+            return false;
+        }
+        long next = engine.getTick() + 1;
+        data.position(position);
+
+        // Input records come first within a tick
+        int input = 0;
+        int recordStart = data.position();
+        if (recordStart < bodyEnd) {
+            long tag = getVarint();
+            long tick = cursorTick + (tag >>> ReplayFormat.TYPE_BITS);
+            if (tick == next && (tag & ReplayFormat.TYPE_MASK) == ReplayFormat.RECORD_INPUT) {
+                input = (int) getVarint();
+                cursorTick = tick;
+            } else {
+                data.position(recordStart);
+            }
+        }
+
+        engine.tick(input);
+
+        // Then whatever was recorded after the tick
+        while (data.position() < bodyEnd) {
+            recordStart = data.position();
+            long tag = getVarint();
+            long tick = cursorTick + (tag >>> ReplayFormat.TYPE_BITS);
+            int type = (int) (tag & ReplayFormat.TYPE_MASK);
+            if (tick != next || type == ReplayFormat.RECORD_INPUT) {
+                data.position(recordStart);
+                break;
+            }
+            cursorTick = tick;
+            if (type == ReplayFormat.RECORD_HASH) {
+                if (data.getInt() != engine.stateHash()) {
+                    hashMismatches++;
+                }
+            } else if (type == ReplayFormat.RECORD_KEYFRAME) {
+                int length = (int) getVarint();
+                data.position(data.position() + length);
+            }
+        }
+        position = data.position();
+        return true;
+    }
+
+    /**
+     * Plays up to maxTicks ticks, stopping early once budgetNanos have passed.
+     * Returns the number of ticks played.
+     */
+    public int play(int maxTicks, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int played = 0;
+        while (played < maxTicks && step()) {
+            played++;
+            // Checking the clock is not free, so only look every few hundred ticks
+            if ((played & 0xFF) == 0 && System.nanoTime() - deadline > 0) {
+                break;
+            }
+        }
+        return played;
+    }
+
+    /**
+     * Moves playback to the given tick: restores the nearest keyframe at or before it
+     * (unless playing on from the current tick is shorter) and steps forward from there.
+     */
+    public void seek(long target) {
+        target = Math.max(0, Math.min(target, endTick));
+        long current = engine.getTick();
+
+        int k = keyframeCount - 1;
+        while (k >= 0 && keyframeTicks[k] > target) {
+            k--;
+        }
+
+        if (k >= 0 && (target < current || keyframeTicks[k] > current)) {
+            data.position(keyframeStates[k]);
+            engine.readState(reader);
+            position = keyframeEnds[k];
+            cursorTick = keyframeTicks[k];
+        } else if (target < current) {
+            rewind();
+        }
+
+        while (engine.getTick() < target && step()) {
+            // play forward to the target
+        }
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public long getTick() {
+        return engine.getTick();
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public int getHashInterval() {
+        return hashInterval;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /** Number of recorded state hashes that did not match the re-simulation so far. */
+    public int getHashMismatches() {
+        return hashMismatches;
+    }
+
+    // Throws unless the file has n more bytes
+    private void need(int n) throws IOException {
+        if (data.remaining() < n) {
+            throw new IOException("Truncated replay");
+        }
+    }
+
+    // A varint that may run past the end of a damaged file; only for indexing
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            need(1);
+            int b = data.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt replay: varint too long");
+    }
+
+    private long getVarint() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = data.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records a game into the {@link ReplayFormat} while it is played.
+ * The game thread only encodes records into a fixed ring buffer, without allocating or
+ * blocking; a background thread flushes the ring to the file. If the ring ever fills up,
+ * records are dropped and {@link #hasOverflowed()} reports it rather than stalling the game.
+ */
+public class ReplayRecorder {
+    private static final int CAPACITY = 1 << 16; // must be a power of two
+    private static final int MAX_RECORD_BYTES = 16;
+    private static final long FLUSH_INTERVAL_NANOS = 100_000_000L;
+
+    private final byte[] ring = new byte[CAPACITY];
+    private final int hashInterval;
+    private final int keyframeInterval;
+    // Counts the bytes of a keyframe before it is written, so its length can go first
+    private int keyframeLength;
+    private final ReplayFormat.VarintWriter sizer = value -> keyframeLength += varintLength(value);
+    private final ReplayFormat.VarintWriter writer = this::putVarint;
+    private final FileChannel channel;
+    private final Thread flusher;
+
+    // Written by the game thread
+    private long writeCursor;
+    private volatile long writePos;
+    private long lastRecordTick;
+    private long lastTick;
+    private volatile boolean overflowed;
+    private volatile boolean finished;
+
+    // Written by the flusher thread
+    private volatile long readPos;
+    private volatile IOException error;
+
+    public ReplayRecorder(Path file, long seed) throws IOException {
+        this(file, seed, ReplayFormat.DEFAULT_HASH_INTERVAL, ReplayFormat.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public ReplayRecorder(Path file, long seed, int hashInterval, int keyframeInterval) throws IOException {
+        this.hashInterval = hashInterval;
+        this.keyframeInterval = keyframeInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        writeHeader(seed);
+
+        flusher = new Thread(this::flushLoop, "Replay flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void writeHeader(long seed) {
+        for (byte b : ReplayFormat.MAGIC) {
+            putByte(b);
+        }
+        putByte(ReplayFormat.VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            putByte((int) (seed >>> shift));
+        }
+        putVarint(GameEngine.START_DROP_INTERVAL);
+        putVarint(GameEngine.LINES_PER_LEVEL);
+        putVarint(GameEngine.SPEED_DECREASE_PER_LEVEL);
+        putVarint(GameEngine.LOCK_DELAY);
+        putVarint(hashInterval);
+        putVarint(keyframeInterval);
+        writePos = writeCursor;
+    }
+
+    /**
+     * Records the tick the engine just played. Call once after every GameEngine.tick.
+     * @param input the Input bits that were passed to that tick
+     */
+    public void record(GameEngine engine, int input) {
+        long tick = engine.getTick();
+        if (finished || tick == lastTick) {
+            return; // the engine did not advance (game over)
+        }
+        lastTick = tick;
+
+        if (input != 0 && reserve(MAX_RECORD_BYTES)) {
+            putTag(tick, ReplayFormat.RECORD_INPUT);
+            putVarint(input);
+            writePos = writeCursor;
+        }
+        if (tick % hashInterval == 0 && reserve(MAX_RECORD_BYTES)) {
+            putTag(tick, ReplayFormat.RECORD_HASH);
+            int hash = engine.stateHash();
+            putByte(hash >>> 24);
+            putByte(hash >>> 16);
+            putByte(hash >>> 8);
+            putByte(hash);
+            writePos = writeCursor;
+        }
+        if (tick % keyframeInterval == 0) {
+            keyframeLength = 0;
+            engine.writeState(sizer);
+            if (reserve(MAX_RECORD_BYTES + keyframeLength)) {
+                putTag(tick, ReplayFormat.RECORD_KEYFRAME);
+                putVarint(keyframeLength);
+                engine.writeState(writer);
+                writePos = writeCursor;
+            }
+        }
+    }
+
+    /**
+     * Writes the end record and lets the flusher close the file once everything is written.
+     * Does not wait for the flush.
+     */
+    public void finish(long finalTick) {
+        if (finished) {
+            return;
+        }
+        if (reserve(MAX_RECORD_BYTES)) {
+            putTag(finalTick, ReplayFormat.RECORD_END);
+            writePos = writeCursor;
+        }
+        finished = true;
+        LockSupport.unpark(flusher);
+    }
+
+    /** Waits until the file is fully written and closed. */
+    public void awaitFlushed() throws IOException, InterruptedException {
+        flusher.join();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    public boolean hasOverflowed() {
+        return overflowed;
+    }
+
+    private boolean reserve(int bytes) {
+        if (CAPACITY - (writeCursor - readPos) < bytes) {
+            overflowed = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void putTag(long tick, int type) {
+        putVarint(((tick - lastRecordTick) << ReplayFormat.TYPE_BITS) | type);
+        lastRecordTick = tick;
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            putByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        putByte((int) value);
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private void putByte(int b) {
+        ring[(int) (writeCursor++ & (CAPACITY - 1))] = (byte) b;
+    }
+
+    private void flushLoop() {
+        ByteBuffer view = ByteBuffer.wrap(ring);
+        try {
+            while (true) {
+                boolean done = finished;
+                long end = writePos;
+                long pos = readPos;
+                while (pos < end) {
+                    int from = (int) (pos & (CAPACITY - 1));
+                    int length = (int) Math.min(end - pos, CAPACITY - from);
+                    view.limit(from + length).position(from);
+                    while (view.hasRemaining()) {
+                        channel.write(view);
+                    }
+                    pos += length;
+                    readPos = pos;
+                }
+                if (done) {
+                    break;
+                }
+                LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+            }
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package engine;
+
+/**
+ * Plays back a fixed sequence of per-tick inputs, starting over when it reaches the end.
+ */
+public class ScriptedInput implements InputSource {
+    private final int[] inputs;
+    private int index;
+
+    public ScriptedInput(int[] inputs) {
+        this.inputs = inputs;
+    }
+
+    @Override
+    public int nextInput(GameEngine engine) {
+        if (inputs.length == 0) {
+            return 0;
+        }
+        int input = inputs[index];
+        index = (index + 1) % inputs.length;
+        return input;
+    }
+}
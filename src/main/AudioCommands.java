@@ -0,0 +1,66 @@
+package main;
+
+/**
+ * What the game asks of the audio, queued for the {@link AudioMixer}'s thread to carry out. A
+ * command is a fixed record of an operation, what it applies to (an effect or a music stream)
+ * and a value such as a gain, kept in a ring of {@link #CAPACITY} slots that are allocated once.
+ * <p>
+ * One thread pushes and one drains; each moves its own volatile count, so neither ever locks
+ * or waits. When the ring is full a command is dropped and counted rather than blocking the
+ * thread that pushed it: a missed click is better than a late frame.
+ */
+final class AudioCommands {
+    /** Slots in the ring; far more than the game issues between two chunks. */
+    static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    /** Carries out one command; on the draining thread. */
+    interface Handler {
+        void run(int op, Object target, float value);
+    }
+
+    private final int[] ops = new int[CAPACITY];
+    private final Object[] targets = new Object[CAPACITY];
+    private final float[] values = new float[CAPACITY];
+    // Commands ever pushed and drained; the ring holds pushed - drained of them
+    private volatile long pushed;
+    private volatile long drained;
+    private volatile long dropped;
+
+    /** Queues a command; false if the ring was full and it was dropped. On the pushing thread only. */
+    boolean push(int op, Object target, float value) {
+        long p = pushed;
+        if (p - drained >= CAPACITY) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) p & MASK;
+        ops[slot] = op;
+        targets[slot] = target;
+        values[slot] = value;
+        // Publishes the slot to the draining thread
+        pushed = p + 1;
+        return true;
+    }
+
+    /** Runs every queued command in the order pushed. On the draining thread only. */
+    void drain(Handler handler) {
+        long d = drained;
+        long end = pushed;
+        while (d < end) {
+            int slot = (int) d & MASK;
+            Object target = targets[slot];
+            // Not kept alive by the ring
+            targets[slot] = null;
+            handler.run(ops[slot], target, values[slot]);
+            d++;
+        }
+        // Hands the slots back to the pushing thread
+        drained = d;
+    }
+
+    /** Commands dropped because the ring was full. */
+    long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,279 @@
+package main;
+
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Plays sound effects and music by mixing them in software onto one SourceDataLine that stays
+ * open for the whole game. Its thread sums the playing voices into fixed chunks of
+ * {@link #CHUNK_FRAMES} frames and writes each to the line, whose buffer holds only a few
+ * chunks; the blocking write paces the thread. An effect started now is heard after at most
+ * what is queued in the line plus one chunk, about 16 ms.
+ * <p>
+ * At most {@link #MAX_VOICES} effects play at once, and at most
+ * {@link #MAX_VOICES_PER_EFFECT} of the same one. Past either limit the voice started longest
+ * ago (of that effect, or of all) is taken over. Every voice has its own gain. The music is
+ * one more source on top, pulled from its {@link MusicStream}.
+ * <p>
+ * Nothing else touches the voices or the music: {@link #play} and the other controls only push
+ * a command onto an {@link AudioCommands} ring, which the mixing thread drains before each
+ * chunk. They never block or wait for Java Sound, and are dropped if the ring is full. They
+ * must all be called from one thread at a time, the game loop's.
+ */
+final class AudioMixer implements Runnable {
+    /** Frames mixed and written at a time: 5.3 ms at 48 kHz. */
+    static final int CHUNK_FRAMES = 256;
+    // Chunks the line buffers; fewer risks underruns, more adds latency
+    private static final int LINE_CHUNKS = 2;
+    static final int MAX_VOICES = 8;
+    static final int MAX_VOICES_PER_EFFECT = 3;
+    // Gains are fixed point with this as 1.0; up to MAX_GAIN a sample times a gain fits an int
+    private static final int UNITY_GAIN = 1 << 15;
+    private static final int MAX_GAIN = Integer.MAX_VALUE / -Short.MIN_VALUE;
+
+    // Commands
+    private static final int PLAY = 0;
+    private static final int SET_MUSIC = 1;
+    private static final int PLAY_MUSIC = 2;
+    private static final int PAUSE_MUSIC = 3;
+    private static final int RESUME_MUSIC = 4;
+    private static final int STOP_MUSIC = 5;
+    private static final int LOOP_MUSIC = 6;
+    private static final int MUSIC_GAIN = 7;
+
+    private final SourceDataLine line;
+    private final int frameRate;
+    private final int[] mix = new int[CHUNK_FRAMES * 2];
+    private final byte[] chunk = new byte[CHUNK_FRAMES * 4];
+    private Thread thread;
+    private volatile boolean running;
+
+    private final AudioCommands commands = new AudioCommands();
+    // Made once, so draining allocates nothing
+    private final AudioCommands.Handler executor = this::execute;
+
+    // The voices, on the mixing thread only; a voice is free when it has no effect
+    private final SoundEffect[] voiceEffect = new SoundEffect[MAX_VOICES];
+    private final int[] voicePosition = new int[MAX_VOICES];
+    private final int[] voiceGain = new int[MAX_VOICES];
+    private final long[] voiceStart = new long[MAX_VOICES];
+    private long starts;
+
+    // Set on the mixing thread only
+    private volatile MusicStream music;
+    private int musicGain = UNITY_GAIN;
+
+    // Measured by the mixing thread
+    private volatile long chunks;
+    private volatile long underruns;
+    private volatile long stolenVoices;
+    private volatile double latencyMillis;
+
+    /** A mixer for the given line, which must be open in {@link Sound#OUTPUT_FORMAT}; null for mixing only. */
+    AudioMixer(SourceDataLine line) {
+        this.line = line;
+        this.frameRate = (int) Sound.OUTPUT_FORMAT.getSampleRate();
+    }
+
+    /** Opens the output line and starts mixing onto it. */
+    static AudioMixer open() throws LineUnavailableException {
+        SourceDataLine line = AudioSystem.getSourceDataLine(Sound.OUTPUT_FORMAT);
+        line.open(Sound.OUTPUT_FORMAT, CHUNK_FRAMES * 4 * LINE_CHUNKS);
+        AudioMixer mixer = new AudioMixer(line);
+        mixer.start();
+        return mixer;
+    }
+
+    private void start() {
+        running = true;
+        line.start();
+        thread = new Thread(this, "audio-mixer");
+        thread.setDaemon(true);
+        // A late chunk is heard as a click; a late frame only as a stutter
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /** Stops mixing and closes the line; whatever is still playing is cut off. */
+    void close() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        line.stop();
+        line.close();
+    }
+
+    /** Starts an effect from the beginning at a gain of 0 to 1 (or up to just under 2, which may clip). */
+    void play(SoundEffect effect, float gain) {
+        commands.push(PLAY, effect, gain);
+    }
+
+    /** Sets the track mixed in under the effects, or null for none. */
+    void setMusic(MusicStream music) {
+        commands.push(SET_MUSIC, music, 0f);
+    }
+
+    /** Plays the track from the start. */
+    void playMusic() {
+        commands.push(PLAY_MUSIC, null, 0f);
+    }
+
+    void pauseMusic() {
+        commands.push(PAUSE_MUSIC, null, 0f);
+    }
+
+    void resumeMusic() {
+        commands.push(RESUME_MUSIC, null, 0f);
+    }
+
+    /** Stops the track and rewinds it. */
+    void stopMusic() {
+        commands.push(STOP_MUSIC, null, 0f);
+    }
+
+    void setMusicLooping(boolean looping) {
+        commands.push(LOOP_MUSIC, null, looping ? 1f : 0f);
+    }
+
+    void setMusicGain(float gain) {
+        commands.push(MUSIC_GAIN, null, gain);
+    }
+
+    // Carries out a command; on the mixing thread, before a chunk
+    private void execute(int op, Object target, float value) {
+        switch (op) {
+            case PLAY: startVoice((SoundEffect) target, value); break;
+            case SET_MUSIC: music = (MusicStream) target; break;
+            case MUSIC_GAIN: musicGain = toFixed(value); break;
+            default: executeMusic(op, value); break;
+        }
+    }
+
+    // The music commands are for whichever track is set, if any
+    private void executeMusic(int op, float value) {
+        MusicStream m = music;
+        if (m == null) {
+            return;
+        }
+        switch (op) {
+            case PLAY_MUSIC: m.play(); break;
+            case PAUSE_MUSIC: m.pause(); break;
+            case RESUME_MUSIC: m.resume(); break;
+            case STOP_MUSIC: m.stop(); break;
+            case LOOP_MUSIC: m.setLooping(value != 0f); break;
+            default: throw new IllegalArgumentException("Unknown audio command " + op);
+        }
+    }
+
+    private void startVoice(SoundEffect effect, float gain) {
+        int free = -1, oldest = -1, oldestSame = -1, same = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceEffect[v] == null) {
+                if (free < 0) {
+                    free = v;
+                }
+                continue;
+            }
+            if (oldest < 0 || voiceStart[v] < voiceStart[oldest]) {
+                oldest = v;
+            }
+            if (voiceEffect[v] == effect) {
+                same++;
+                if (oldestSame < 0 || voiceStart[v] < voiceStart[oldestSame]) {
+                    oldestSame = v;
+                }
+            }
+        }
+        int voice;
+        if (same >= MAX_VOICES_PER_EFFECT) {
+            voice = oldestSame;
+        } else if (free >= 0) {
+            voice = free;
+        } else {
+            voice = oldest;
+        }
+        if (voiceEffect[voice] != null) {
+            stolenVoices++;
+        }
+        voiceEffect[voice] = effect;
+        voicePosition[voice] = 0;
+        voiceGain[voice] = toFixed(gain);
+        voiceStart[voice] = ++starts;
+    }
+
+    // A gain as fixed point, kept where a sample times it can't overflow
+    private static int toFixed(float gain) {
+        return Math.round(Math.max(0f, Math.min(gain * UNITY_GAIN, MAX_GAIN)));
+    }
+
+    @Override
+    public void run() {
+        int bufferSize = line.getBufferSize();
+        while (running) {
+            mixChunk(chunk);
+            int available = line.available();
+            // An empty line has played everything out before this chunk: a gap was heard.
+            // (The first chunks fill it from empty.)
+            if (available >= bufferSize && chunks >= LINE_CHUNKS) {
+                underruns++;
+            }
+            latencyMillis = ((bufferSize - available) / 4 + CHUNK_FRAMES) * 1000.0 / frameRate;
+            line.write(chunk, 0, chunk.length);
+            chunks++;
+        }
+    }
+
+    /**
+     * Carries out the queued commands, then mixes the next chunk of all voices into out as
+     * 16-bit little-endian stereo, and moves them on. On the mixing thread only.
+     */
+    void mixChunk(byte[] out) {
+        commands.drain(executor);
+        Arrays.fill(mix, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            SoundEffect effect = voiceEffect[v];
+            if (effect == null) {
+                continue;
+            }
+            short[] samples = effect.getSamples();
+            int position = voicePosition[v];
+            int gain = voiceGain[v];
+            int n = Math.min(mix.length, samples.length - position);
+            for (int i = 0; i < n; i++) {
+                mix[i] += samples[position + i] * gain >> 15;
+            }
+            voicePosition[v] = position + n;
+            if (voicePosition[v] >= samples.length) {
+                voiceEffect[v] = null;
+            }
+        }
+        MusicStream m = music;
+        if (m != null) {
+            m.mixInto(mix, CHUNK_FRAMES, musicGain);
+        }
+        for (int i = 0; i < mix.length; i++) {
+            // Saturate rather than wrap when loud voices add up
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[i * 2] = (byte) sample;
+            out[i * 2 + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    /**
+     * Latency, underruns (chunks written to an already empty line, so a gap was heard), voices
+     * cut off for a new one, commands dropped from a full queue and chunks the music starved.
+     */
+    String summary() {
+        MusicStream m = music;
+        return String.format("audio %.1f ms, %d underruns, %d stolen, %d dropped, music %d starved",
+                latencyMillis, underruns, stolenVoices, commands.getDropped(), m == null ? 0 : m.getStarvedChunks());
+    }
+}
@@ -0,0 +1,123 @@
+package main;
+
+import java.awt.Graphics2D;
+
+/**
+ * The parts of the screen that changed since the last frame, as a short list of rectangles.
+ * Rectangles that overlap or nearly touch are merged as they are added; once the damage grows
+ * past a fraction of the screen (or past the list size) it turns into a full repaint, since
+ * drawing the scene once is then cheaper than drawing it clipped many times.
+ */
+class DamageRegion {
+    private static final int MAX_RECTS = 128;
+    // Merging two rectangles is fine as long as it adds at most this much undamaged area
+    private static final int MERGE_SLACK = 24 * 24;
+    private static final int FULL_PERCENT = 40;
+
+    private final int width, height;
+    private final int[] x0 = new int[MAX_RECTS];
+    private final int[] y0 = new int[MAX_RECTS];
+    private final int[] x1 = new int[MAX_RECTS];
+    private final int[] y1 = new int[MAX_RECTS];
+    private int count;
+    private boolean full = true;
+
+    DamageRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    void add(int x, int y, int w, int h) {
+        if (full || w <= 0 || h <= 0) {
+            return;
+        }
+        int ax = Math.max(0, x), ay = Math.max(0, y);
+        int bx = Math.min(width, x + w), by = Math.min(height, y + h);
+        if (ax >= bx || ay >= by) {
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int ux0 = Math.min(ax, x0[i]), uy0 = Math.min(ay, y0[i]);
+            int ux1 = Math.max(bx, x1[i]), uy1 = Math.max(by, y1[i]);
+            long union = (long) (ux1 - ux0) * (uy1 - uy0);
+            long separate = (long) (bx - ax) * (by - ay) + (long) (x1[i] - x0[i]) * (y1[i] - y0[i]);
+            if (union <= separate + MERGE_SLACK) {
+                x0[i] = ux0;
+                y0[i] = uy0;
+                x1[i] = ux1;
+                y1[i] = uy1;
+                checkArea();
+                return;
+            }
+        }
+
+        if (count == MAX_RECTS) {
+            full = true;
+            return;
+        }
+        x0[count] = ax;
+        y0[count] = ay;
+        x1[count] = bx;
+        y1[count] = by;
+        count++;
+        checkArea();
+    }
+
+    /** Marks the whole screen as damaged. */
+    void addAll() {
+        full = true;
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    boolean isEmpty() {
+        return !full && count == 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Restricts drawing to damaged rectangle i grown by pad on every side; on a scaled screen
+     * a pixel of slack keeps rounding at the rectangle's edges from leaving stale pixels.
+     */
+    void clip(Graphics2D g2, int i, int pad) {
+        g2.setClip(x0[i] - pad, y0[i] - pad, x1[i] - x0[i] + pad * 2, y1[i] - y0[i] + pad * 2);
+    }
+
+    int getX(int i) {
+        return x0[i];
+    }
+
+    int getY(int i) {
+        return y0[i];
+    }
+
+    int getWidth(int i) {
+        return x1[i] - x0[i];
+    }
+
+    int getHeight(int i) {
+        return y1[i] - y0[i];
+    }
+
+    void clear() {
+        count = 0;
+        full = false;
+    }
+
+    // Rectangles may overlap after merging, so this overestimates; that only makes the fallback earlier
+    private void checkArea() {
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            area += (long) (x1[i] - x0[i]) * (y1[i] - y0[i]);
+        }
+        if (area * 100 > (long) width * height * FULL_PERCENT) {
+            full = true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package main;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * The digits 0-9 of one font and color, rendered once into a strip, so numbers that change
+ * every frame (the score) are drawn as a few blits with no String building and no text layout.
+ * Each digit is rendered into a padded cell, so ink that reaches past its advance is kept,
+ * and then cut down to the pixels it actually covers, so a blit touches no more pixels than
+ * the glyph itself. Digits are rendered with default hints, which draws exactly what
+ * drawString does on a Graphics2D with default hints. The glyphs are kept at the
+ * {@link Viewport} resolution and rendered again when that changes.
+ */
+class DigitAtlas {
+    private static final int PAD = 4;
+
+    private final Font font;
+    private final Color color;
+    private final int ascent, cellWidth, height;
+    private double glyphScale;
+    // One image per digit cut from the same strip, and where it sits from the pen position in device pixels
+    private final BufferedImage[] glyphs = new BufferedImage[10];
+    private final int[] glyphX = new int[10];
+    private final int[] glyphY = new int[10];
+    private final int[] advance = new int[10];
+    // The digits of the number being drawn, least significant first
+    private final byte[] digits = new byte[10];
+
+    DigitAtlas(Font font, Color color) {
+        this.font = font;
+        this.color = color;
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D pg = probe.createGraphics();
+        FontMetrics metrics = pg.getFontMetrics(font);
+        pg.dispose();
+
+        int widest = 0;
+        for (int d = 0; d < 10; d++) {
+            advance[d] = metrics.charWidth((char) ('0' + d));
+            widest = Math.max(widest, advance[d]);
+        }
+        cellWidth = widest + PAD * 2;
+        ascent = metrics.getAscent();
+        height = ascent + metrics.getDescent() + PAD * 2;
+        rasterize(Viewport.getScale());
+    }
+
+    private void rasterize(double scale) {
+        glyphScale = scale;
+        // Cells are whole device pixels apart; inside a cell the digit is drawn in logical pixels
+        int deviceCell = (int) Math.ceil(cellWidth * scale);
+        int deviceHeight = (int) Math.ceil(height * scale);
+        BufferedImage strip = Layer.createImage(deviceCell * 10, deviceHeight, false);
+        Graphics2D g2 = strip.createGraphics();
+        g2.setFont(font);
+        g2.setColor(color);
+        for (int d = 0; d < 10; d++) {
+            g2.setTransform(new AffineTransform(scale, 0, 0, scale, d * deviceCell, 0));
+            g2.drawString(String.valueOf(d), PAD, PAD + ascent);
+        }
+        g2.dispose();
+        for (int d = 0; d < 10; d++) {
+            cropGlyph(strip, d, d * deviceCell, deviceCell, deviceHeight, (int) Math.round((PAD + ascent) * scale),
+                    (int) Math.round(PAD * scale));
+        }
+    }
+
+    private void cropGlyph(BufferedImage strip, int d, int cellX, int cellWidth, int height, int baseline, int pad) {
+        glyphs[d] = null;
+        int x0 = cellWidth, y0 = height, x1 = 0, y1 = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < cellWidth; x++) {
+                if ((strip.getRGB(cellX + x, y) >>> 24) != 0) {
+                    x0 = Math.min(x0, x);
+                    y0 = Math.min(y0, y);
+                    x1 = Math.max(x1, x + 1);
+                    y1 = Math.max(y1, y + 1);
+                }
+            }
+        }
+        if (x0 >= x1) {
+            return;
+        }
+        glyphs[d] = strip.getSubimage(cellX + x0, y0, x1 - x0, y1 - y0);
+        glyphX[d] = x0 - pad;
+        glyphY[d] = y0 - baseline;
+    }
+
+    /**
+     * Draws a number of zero or more with its baseline at y, like drawString would.
+     * Returns the width drawn.
+     */
+    int draw(Graphics2D g2, int value, int x, int y) {
+        int start = x;
+        for (int i = split(value) - 1; i >= 0; i--) {
+            int d = digits[i];
+            if (glyphs[d] != null) {
+                Viewport.drawImage(g2, glyphs[d], x, y, glyphX[d], glyphY[d]);
+            }
+            x += advance[d];
+        }
+        return x - start;
+    }
+
+    /** Draws a number into a software frame, faded by alpha (0-255). Returns the width drawn. */
+    int draw(PixelRenderer target, int value, int x, int y, int alpha) {
+        int start = x;
+        for (int i = split(value) - 1; i >= 0; i--) {
+            int d = digits[i];
+            if (glyphs[d] != null) {
+                target.blit(glyphs[d], x, y, glyphX[d], glyphY[d], alpha);
+            }
+            x += advance[d];
+        }
+        return x - start;
+    }
+
+    // Brings the glyphs to the current scale and fills digits; returns how many there are
+    private int split(int value) {
+        if (glyphScale != Viewport.getScale()) {
+            rasterize(Viewport.getScale());
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) (value % 10);
+            value /= 10;
+        } while (value > 0);
+        return count;
+    }
+}
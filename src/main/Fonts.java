@@ -0,0 +1,71 @@
+package main;
+
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Every font the game draws with, looked up once at startup.
+ * The game was designed around Impact and Arial, which most Linux systems don't have; asking
+ * for a missing family silently gives the plain Dialog font, so each family falls back to the
+ * nearest one installed instead, and finally to the logical sans serif font. Impact is much
+ * narrower than any ordinary sans serif and the layout counts on that. Its condensed fallbacks
+ * are about as narrow already, but when it comes down to DejaVu or the logical font, that is
+ * squeezed horizontally to about the same width.
+ */
+final class Fonts {
+    // The last display family tried, no narrower than an ordinary sans serif
+    private static final String DISPLAY_WIDE_FALLBACK = "DejaVu Sans Condensed";
+
+    private static final Set<String> INSTALLED = new HashSet<>(Arrays.asList(
+            GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()));
+
+    /** Big headings: the title, overlays and the level up text. */
+    static final String DISPLAY_FAMILY = firstInstalled(
+            "Impact", "Haettenschweiler", "Anton", "Oswald", "League Gothic", "Bebas Neue", DISPLAY_WIDE_FALLBACK);
+    /** Labels, numbers and buttons. */
+    static final String TEXT_FAMILY = firstInstalled(
+            "Arial", "Liberation Sans", "Arimo", "Helvetica", "Nimbus Sans", "DejaVu Sans");
+
+    // How wide an ordinary sans serif display font is drawn compared to its natural width
+    private static final double DISPLAY_CONDENSE = 0.75;
+
+    static final Font TITLE = display(50);
+    static final Font MENU_TITLE = display(55);
+    static final Font OVERLAY = display(50);
+    static final Font LEVEL_UP = display(60);
+    static final Font LEVEL_NUMBER = display(80);
+
+    static final Font SUBTITLE = new Font(TEXT_FAMILY, Font.ITALIC, 15);
+    static final Font MENU_SUBTITLE = new Font(TEXT_FAMILY, Font.ITALIC, 24);
+    static final Font PANEL_TITLE = new Font(TEXT_FAMILY, Font.BOLD, 24);
+    static final Font LABEL = new Font(TEXT_FAMILY, Font.BOLD, 24);
+    static final Font VALUE = new Font(TEXT_FAMILY, Font.BOLD, 30);
+    static final Font HINT = new Font(TEXT_FAMILY, Font.PLAIN, 20);
+    static final Font BUTTON = new Font(TEXT_FAMILY, Font.BOLD, 36);
+    static final Font FOOTER = new Font(TEXT_FAMILY, Font.PLAIN, 14);
+
+    private Fonts() {
+    }
+
+    private static Font display(int size) {
+        Font font = new Font(DISPLAY_FAMILY, Font.BOLD, size);
+        if (!DISPLAY_FAMILY.equals(DISPLAY_WIDE_FALLBACK) && !DISPLAY_FAMILY.equals(Font.SANS_SERIF)) {
+            // Impact or one of the condensed faces: narrow enough as it is
+            return font;
+        }
+        return font.deriveFont(AffineTransform.getScaleInstance(DISPLAY_CONDENSE, 1));
+    }
+
+    private static String firstInstalled(String... families) {
+        for (String family : families) {
+            if (INSTALLED.contains(family)) {
+                return family;
+            }
+        }
+        return Font.SANS_SERIF;
+    }
+}
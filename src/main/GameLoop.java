@@ -0,0 +1,238 @@
+package main;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Fixed-timestep loop: runs the game logic at a constant tick rate and renders at its own
+ * frame rate, parking the thread in between instead of spinning on System.nanoTime.
+ * Renders get the fraction of a tick that has passed since the last one, so motion can be
+ * interpolated between the previous and the current logic state.
+ * <p>
+ * When the game says it is idle ({@link #setIdleFrameRate}) the loop only wakes for frames at
+ * a lower rate, running the ticks due by then together, or sleeps outright until {@link #wake}
+ * is called. Input wakes it back to the full rate for a moment.
+ */
+public class GameLoop implements Runnable {
+    // parkNanos can oversleep by tens of microseconds; the last stretch before a deadline is spun
+    private static final long SPIN_NANOS = 200_000;
+    // At most this many ticks are caught up in one go; time lost beyond that is dropped
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final long STATS_WINDOW_NANOS = 1_000_000_000L;
+
+    /** From the idle check: run at the full frame rate. */
+    public static final int FULL_RATE = 0;
+    /** From the idle check: nothing moves, so sleep until woken. */
+    public static final int ASLEEP = -1;
+    // After a wake up the loop runs at the full rate this long, for whatever the input started
+    private static final long WAKE_NANOS = 500_000_000L;
+    // Even asleep the loop looks around this often, in case something changed without input
+    private static final long ASLEEP_NANOS = 1_000_000_000L;
+
+    private final long tickNanos;
+    private final long frameNanos;
+    private final Runnable tick;
+    private final DoubleConsumer render;
+    private volatile boolean running;
+    private volatile IntSupplier idleFrameRate = () -> FULL_RATE;
+    private volatile Thread thread;
+    private volatile long lastWake;
+    // Set while the loop waits at an idle rate, when wake() has to unpark it
+    private volatile boolean idle;
+
+    // Timing of the current stats window, written by the loop thread only
+    private long windowStart;
+    private int windowTicks;
+    private long windowLatenessSum;
+    private long windowLatenessMax;
+    private int windowFrames;
+    private long lastFrameStart;
+    private long windowFrameIntervalMax;
+
+    // Stats of the last complete window
+    private volatile double tickRate;
+    private volatile double meanLatenessMicros;
+    private volatile double maxLatenessMicros;
+    private volatile long droppedTicks;
+    private volatile double frameRate;
+    private volatile double maxFrameIntervalMillis;
+
+    public GameLoop(int ticksPerSecond, int framesPerSecond, Runnable tick, DoubleConsumer render) {
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        this.tick = tick;
+        this.render = render;
+    }
+
+    public void stop() {
+        running = false;
+        wake();
+    }
+
+    /**
+     * Sets what the loop asks before every wait: {@link #FULL_RATE}, a lower frame rate to
+     * drop to, or {@link #ASLEEP}. Called on the loop thread.
+     */
+    public void setIdleFrameRate(IntSupplier idleFrameRate) {
+        this.idleFrameRate = idleFrameRate;
+    }
+
+    /** Brings the loop back to the full rate right away; call on input. Any thread. */
+    public void wake() {
+        lastWake = System.nanoTime();
+        // Written before idle is read here, and idle before lastWake is read in idleUntil,
+        // so either the loop sees the wake up or this sees the loop waiting
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        running = true;
+        long nextTick = System.nanoTime();
+        long nextFrame = nextTick;
+        windowStart = nextTick;
+        lastWake = nextTick;
+        // Whether ticks have run since the last frame; the loop only falls asleep on a frame that shows them
+        boolean unshown = true;
+
+        while (running) {
+            long now = System.nanoTime();
+            int rate = now - lastWake < WAKE_NANOS ? FULL_RATE : idleFrameRate.getAsInt();
+            long interval = rate > 0 ? 1_000_000_000L / rate : frameNanos;
+
+            int ticks = 0;
+            // At an idle rate a frame's worth of ticks is due at once
+            int maxTicks = Math.max(MAX_CATCH_UP_TICKS, (int) (interval / tickNanos) + 1);
+            while (now - nextTick >= 0 && ticks < maxTicks) {
+                recordLateness(now - nextTick);
+                tick.run();
+                unshown = true;
+                nextTick += tickNanos;
+                ticks++;
+                now = System.nanoTime();
+            }
+            if (now - nextTick >= 0) {
+                // Stalled (debugger, swapping, a long GC): skip ahead instead of trying to catch up
+                droppedTicks += (now - nextTick) / tickNanos + 1;
+                nextTick = now + tickNanos;
+            }
+
+            if (now - nextFrame >= 0) {
+                recordFrame(now);
+                double alpha = 1.0 - (double) (nextTick - now) / tickNanos;
+                render.accept(Math.max(0.0, Math.min(1.0, alpha)));
+                unshown = false;
+                nextFrame += interval;
+                if (now - nextFrame >= 0) {
+                    nextFrame = now + interval;
+                }
+            }
+
+            if (now - windowStart >= STATS_WINDOW_NANOS) {
+                closeWindow(now);
+            }
+
+            if (rate == ASLEEP && !unshown) {
+                idleUntil(now + ASLEEP_NANOS);
+                // Time spent asleep isn't caught up or counted as dropped; carry on from here
+                nextTick = System.nanoTime();
+                nextFrame = nextTick;
+            } else if (rate > 0) {
+                idleUntil(nextFrame);
+            } else {
+                waitUntil(nextTick - nextFrame < 0 ? nextTick : nextFrame);
+            }
+        }
+        thread = null;
+    }
+
+    // Parks until the deadline or a wake up; no spinning, an idle frame can be a little late
+    private void idleUntil(long deadline) {
+        idle = true;
+        long remaining;
+        while (running && System.nanoTime() - lastWake >= WAKE_NANOS
+                && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+        idle = false;
+    }
+
+    // Parks for most of the wait and spins the rest, so the deadline is met within microseconds
+    private static void waitUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void recordLateness(long lateness) {
+        windowTicks++;
+        windowLatenessSum += lateness;
+        windowLatenessMax = Math.max(windowLatenessMax, lateness);
+    }
+
+    private void recordFrame(long now) {
+        if (lastFrameStart != 0) {
+            windowFrameIntervalMax = Math.max(windowFrameIntervalMax, now - lastFrameStart);
+        }
+        lastFrameStart = now;
+        windowFrames++;
+    }
+
+    private void closeWindow(long now) {
+        double seconds = (now - windowStart) / 1e9;
+        tickRate = windowTicks / seconds;
+        meanLatenessMicros = windowTicks == 0 ? 0 : windowLatenessSum / 1e3 / windowTicks;
+        maxLatenessMicros = windowLatenessMax / 1e3;
+        frameRate = windowFrames / seconds;
+        maxFrameIntervalMillis = windowFrameIntervalMax / 1e6;
+        windowStart = now;
+        windowTicks = 0;
+        windowLatenessSum = 0;
+        windowLatenessMax = 0;
+        windowFrames = 0;
+        windowFrameIntervalMax = 0;
+    }
+
+    /** Ticks actually run per second over the last second. */
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    /** Mean time ticks started after their scheduled time over the last second. */
+    public double getMeanLatenessMicros() {
+        return meanLatenessMicros;
+    }
+
+    /** Latest a tick started after its scheduled time over the last second. */
+    public double getMaxLatenessMicros() {
+        return maxLatenessMicros;
+    }
+
+    /** Ticks skipped in total because the loop fell too far behind. */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    /** Frames rendered per second over the last second. */
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /** Longest gap between two frames over the last second; compare with 1000 / frame rate. */
+    public double getMaxFrameIntervalMillis() {
+        return maxFrameIntervalMillis;
+    }
+
+    public String timingSummary() {
+        return String.format("%.1f ticks/s, late %.0f us mean, %.0f us max, %d dropped | %.1f fps, %.2f ms max frame",
+                tickRate, meanLatenessMicros, maxLatenessMicros, droppedTicks, frameRate, maxFrameIntervalMillis);
+    }
+}
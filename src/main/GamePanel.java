@@ -1,27 +1,80 @@
 package main;
 
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.awt.image.BufferStrategy;
 import javax.swing.JPanel;
 
-public class GamePanel extends JPanel implements Runnable {
+import engine.ReplayPlayer;
+
+public class GamePanel extends JPanel {
     // Screen settings
     public static final int WIDTH = 1100;
     public static final int HEIGHT = 720;
     final int FPS = 60;
+    // Render rate, independent of the logic rate (--fps)
+    int frameRate = 60;
+    // Render rate when only ambient motion (floating title, pulsing stars) is on screen
+    private static final int IDLE_FRAME_RATE = 20;
+    // Frames each renderer is timed for by --renderer auto
+    private static final int AUTO_RENDERER_FRAMES = 120;
+    private static final Font TIMING_FONT = new Font("Monospaced", Font.PLAIN, 12);
 
     // Game components
     Thread gameThread;
+    // Read on the EDT to wake the loop
+    volatile GameLoop loop;
+    // Draws the loop's timing stats in the corner (--timing)
+    boolean showTiming;
+    // Active rendering draws straight into a Canvas buffer strategy from the loop thread;
+    // without it (--passive, or if the strategy can't be created) frames go through repaint()
+    boolean activeRendering = true;
+    // Holds ambient motion still, so idle screens let the loop sleep (--reduced-motion)
+    boolean reducedMotion;
+    // Name of the Renderer that draws the play scene (--renderer); "auto" times them at launch
+    String renderer = Graphics2DRenderer.NAME;
+    // Fixed decoration tier (--quality), or "auto" to let the governor follow the frame times
+    String quality = "auto";
+    private QualityGovernor governor;
+    private Quality appliedQuality;
+    // When the frame being drawn started, for the governor
+    private long frameStart;
+    private Canvas canvas;
+    private BufferStrategy strategy;
+    // What changed on screen since the last frame, in logical pixels; starts out as everything
+    private final DamageRegion damage = new DamageRegion(WIDTH, HEIGHT);
+    // Set when the window system needs the canvas drawn again, such as when it is uncovered
+    private volatile boolean exposed;
+    // Set when PLAY is clicked on the menu; the loop thread starts the game, as it does on ENTER
+    private volatile boolean startRequested;
+    // Component bounds of one damaged rectangle, for the passive path
+    private final int[] repaintBounds = new int[4];
     PlayManager pm;
     Menu menu;
+    KeyHandler keyH = new KeyHandler();
     public static Sound music = new Sound();
     public static Sound se = new Sound();
 
+    // Replay playback, null when playing normally
+    ReplayPlayer replay;
+    // Ticks per frame at the 1x and 10x speeds; 0 means as many as fit in a frame
+    private static final int[] REPLAY_SPEEDS = {1, 10, 0};
+    private static final int REPLAY_SEEK_TICKS = 600;
+    private int replaySpeed = REPLAY_SPEEDS[0];
+
     public GamePanel() {
         // Panel setup
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
@@ -32,103 +85,394 @@ public class GamePanel extends JPanel implements Runnable {
         menu = new Menu();
 
         // Keyboard input
-        addKeyListener(new KeyHandler());
+        addKeyListener(keyH);
+        addKeyListener(wakeHandler);
         setFocusable(true);
         requestFocusInWindow();
 
-        // Mouse click handling
-        addMouseListener(new MouseAdapter() {
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseMotionHandler);
+        // The new size is picked up by the loop, which may be asleep
+        addComponentListener(new ComponentAdapter() {
             @Override
-            public void mouseClicked(MouseEvent e) {
-                if (PlayManager.gameState == GameState.MENU) {
-                    if (menu.handleClick(e.getX(), e.getY())) {
-                        // Start the game
-                        PlayManager.gameState = GameState.PLAYING;
-                        PlayManager.staticBlocks.clear();
-                        resetGame();
-                    }
-                }
+            public void componentResized(ComponentEvent e) {
+                wakeLoop();
             }
         });
+    }
 
-        // Mouse hover handling
-        addMouseMotionListener(new MouseMotionAdapter() {
-            @Override
-            public void mouseMoved(MouseEvent e) {
-                if (PlayManager.gameState == GameState.MENU) {
-                    menu.handleHover(e.getX(), e.getY());
+    // Any key brings the loop back to full rate, so the response isn't held up by an idle frame
+    private final KeyAdapter wakeHandler = new KeyAdapter() {
+        @Override
+        public void keyPressed(KeyEvent e) {
+            wakeLoop();
+        }
+
+        @Override
+        public void keyReleased(KeyEvent e) {
+            wakeLoop();
+        }
+    };
+
+    private void wakeLoop() {
+        GameLoop l = loop;
+        if (l != null) {
+            l.wake();
+        }
+    }
+
+    // Mouse click handling
+    private final MouseAdapter mouseHandler = new MouseAdapter() {
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            wakeLoop();
+            if (pm.gameState == GameState.MENU) {
+                if (menu.handleClick(Viewport.toLogicalX(e.getX()), Viewport.toLogicalY(e.getY()))) {
+                    // Start the game, on the loop thread so it never runs alongside an update
+                    startRequested = true;
+                    repaint();
                 }
             }
-        });
+        }
+    };
+
+    // Mouse hover handling
+    private final MouseMotionAdapter mouseMotionHandler = new MouseMotionAdapter() {
+        @Override
+        public void mouseMoved(MouseEvent e) {
+            if (pm.gameState == GameState.MENU) {
+                wakeLoop();
+                menu.handleHover(Viewport.toLogicalX(e.getX()), Viewport.toLogicalY(e.getY()));
+            }
+        }
+    };
+
+    /** Switches the panel to showing the given replay instead of a playable game. */
+    public void startReplay(ReplayPlayer player) {
+        replay = player;
+        pm = new PlayManager(player.getEngine());
+        pm.gameState = GameState.PLAYING;
+        pm.updateReplay();
     }
 
-    private void resetGame() {
-        pm.currentMino = pm.pickMino();
-        pm.currentMino.setXY(pm.MINO_START_X, pm.MINO_START_Y);
-        pm.nextMino = pm.pickMino();
-        pm.nextMino.setXY(pm.NEXTMINO_X, pm.NEXTMINO_Y);
-        repaint();
+    private Renderer createRenderer() {
+        if (renderer.equals("auto")) {
+            return RendererBenchmark.pickFastest(AUTO_RENDERER_FRAMES);
+        }
+        Renderer r = Renderer.forName(renderer);
+        if (r == null) {
+            System.err.println("Unknown renderer " + renderer + ", using " + Graphics2DRenderer.NAME);
+            r = new Graphics2DRenderer();
+        }
+        return r;
     }
 
     public void launchGame() {
-        gameThread = new Thread(this);
-        gameThread.start();
-
+        if (activeRendering) {
+            startActiveRendering();
+        }
+        // Before the loop starts, so the first rotation doesn't wait for a file or the audio device
+        se.loadEffects();
+        pm.reducedMotion = reducedMotion;
+        menu.reducedMotion = reducedMotion;
+        pm.setRenderer(createRenderer());
+        Quality fixed = Quality.forName(quality);
+        if (fixed == null) {
+            if (!quality.equals("auto")) {
+                System.err.println("Unknown quality " + quality + ", adjusting it automatically");
+            }
+            governor = new QualityGovernor(frameRate);
+            fixed = Quality.FULL;
+        }
+        applyQuality(fixed);
+        loop = new GameLoop(FPS, frameRate, this::update, alpha -> {
+            if (governor != null) {
+                applyQuality(governor.getQuality());
+            }
+            frameStart = System.nanoTime();
+            pm.renderAlpha = alpha;
+            collectDamage();
+            if (strategy != null) {
+                try {
+                    renderActive();
+                } catch (RuntimeException e) {
+                    // A failed frame shouldn't stop the game, just as a failed paint on the EDT doesn't
+                    e.printStackTrace();
+                    damage.addAll();
+                    return;
+                }
+            } else {
+                repaintDamage();
+            }
+            damage.clear();
+        });
+        loop.setIdleFrameRate(this::idleFrameRate);
+        // Before the loop starts; from then on only its thread queues sounds
         music.play(0, true);
         music.loop();
+        gameThread = new Thread(loop, "game-loop");
+        gameThread.start();
     }
 
-    @Override
-    public void run() {
-        double drawInterval = 1000000000.0 / FPS;
-        double delta = 0;
-        long lastTime = System.nanoTime();
-        long currentTime;
-
-        while (gameThread != null) {
-            currentTime = System.nanoTime();
-            delta += (currentTime - lastTime) / drawInterval;
-            lastTime = currentTime;
+    // Takes a decoration tier into use; on the loop thread, between frames
+    private void applyQuality(Quality q) {
+        if (q != appliedQuality) {
+            appliedQuality = q;
+            pm.setQuality(q);
+            menu.quality = q;
+            damage.addAll();
+        }
+    }
 
-            if (delta >= 1) {
-                update();
-                repaint();
-                delta--;
-            }
+    // How fast the loop needs to go for what is on screen; see GameLoop.setIdleFrameRate
+    private int idleFrameRate() {
+        switch (pm.gameState) {
+            case PAUSED:
+                // Everything in the play scene counts ticks, and those stop while paused
+                return GameLoop.ASLEEP;
+            case MENU:
+                if (menu.isAnimating()) {
+                    return GameLoop.FULL_RATE;
+                }
+                return reducedMotion ? GameLoop.ASLEEP : IDLE_FRAME_RATE;
+            case GAME_OVER:
+                if (pm.isAnimating()) {
+                    return GameLoop.FULL_RATE;
+                }
+                return reducedMotion ? GameLoop.ASLEEP : IDLE_FRAME_RATE;
+            default:
+                return GameLoop.FULL_RATE;
         }
     }
 
     private void update() {
-        if (KeyHandler.pausePressed) {
-            if (PlayManager.gameState == GameState.PLAYING) {
-                PlayManager.gameState = GameState.PAUSED;
+        if (replay != null) {
+            updateReplay();
+            return;
+        }
+
+        if (startRequested) {
+            startRequested = false;
+            if (pm.gameState == GameState.MENU) {
+                pm.resetGame();
+            }
+        }
+
+        if (keyH.pausePressed) {
+            if (pm.gameState == GameState.PLAYING) {
+                pm.gameState = GameState.PAUSED;
                 GamePanel.music.pause();
-            } else if (PlayManager.gameState == GameState.PAUSED) {
-                PlayManager.gameState = GameState.PLAYING;
+            } else if (pm.gameState == GameState.PAUSED) {
+                pm.gameState = GameState.PLAYING;
                 GamePanel.music.resume();
             }
-            KeyHandler.pausePressed = false;
+            keyH.pausePressed = false;
+        }
+
+        // Restart when ENTER is pressed on the game over screen
+        if (keyH.enterPressed) {
+            keyH.enterPressed = false;
+            if (pm.gameState == GameState.GAME_OVER) {
+                pm.resetGame();
+                GamePanel.music.play(0, true);
+            }
         }
 
+        // Game controls only count while playing; anything pressed elsewhere is dropped
+        int input = keyH.pollInput();
+
         // ✅ FIXED: Allow update during GAME_OVER
-        if (PlayManager.gameState == GameState.PLAYING || pm.gameOver) {
-            pm.update();
-        } else if (PlayManager.gameState == GameState.MENU) {
+        if (pm.gameState == GameState.PLAYING || pm.gameState == GameState.GAME_OVER) {
+            pm.update(input);
+        } else if (pm.gameState == GameState.MENU) {
             menu.update();
         }
     }
 
+    private void updateReplay() {
+        if (keyH.pausePressed) {
+            keyH.pausePressed = false;
+            if (pm.gameState == GameState.PLAYING) {
+                pm.gameState = GameState.PAUSED;
+            } else if (pm.gameState == GameState.PAUSED) {
+                pm.gameState = GameState.PLAYING;
+            }
+        }
+        if (keyH.replaySpeedKey != 0) {
+            replaySpeed = REPLAY_SPEEDS[keyH.replaySpeedKey - 1];
+            keyH.replaySpeedKey = 0;
+        }
+        if (keyH.replaySeek != 0) {
+            replay.seek(replay.getTick() + keyH.replaySeek * REPLAY_SEEK_TICKS);
+            keyH.replaySeek = 0;
+        }
+        keyH.pollInput();
+
+        if (pm.gameState == GameState.PLAYING) {
+            // Simulate for up to three quarters of a frame; the board is drawn once, wherever it got to
+            int ticks = replaySpeed == 0 ? Integer.MAX_VALUE : replaySpeed;
+            replay.play(ticks, (long) (1000000000.0 / FPS * 0.75));
+        }
+        pm.updateReplay();
+    }
+
+    // Covers the panel with a Canvas that owns a double-buffered strategy; needs the window to be showing
+    private void startActiveRendering() {
+        canvas = new Canvas() {
+            // The window system asks for this when the canvas is uncovered or resized; the
+            // loop draws it, and may be asleep
+            @Override
+            public void update(Graphics g) {
+                paint(g);
+            }
+
+            @Override
+            public void paint(Graphics g) {
+                exposed = true;
+                wakeLoop();
+            }
+        };
+        // The canvas sits on top, so it is the one that gets the input
+        canvas.addKeyListener(keyH);
+        canvas.addKeyListener(wakeHandler);
+        canvas.addMouseListener(mouseHandler);
+        canvas.addMouseMotionListener(mouseMotionHandler);
+        // ...and follows the panel's size when the window is resized
+        setLayout(new BorderLayout());
+        add(canvas, BorderLayout.CENTER);
+        validate();
+        try {
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+            canvas.requestFocusInWindow();
+        } catch (Exception e) {
+            e.printStackTrace();
+            remove(canvas);
+            setLayout(null);
+            canvas = null;
+            strategy = null;
+            requestFocusInWindow();
+        }
+    }
+
+    private void collectDamage() {
+        // Before anything is drawn, so caches rasterize at the new scale right away
+        if (Viewport.fit(canvas != null ? canvas : this) || exposed) {
+            exposed = false;
+            damage.addAll();
+        }
+        pm.collectDamage(damage);
+        if (pm.gameState == GameState.MENU) {
+            // The menu animates all over
+            damage.addAll();
+        }
+        if (showTiming) {
+            damage.add(0, HEIGHT - 24, WIDTH, 24);
+        }
+        if (strategy != null && strategy.getCapabilities().isPageFlipping()) {
+            // A flipped-in back buffer holds an older frame, so it can't be patched
+            damage.addAll();
+        }
+    }
+
+    // Passive path: Swing collects the rectangles and paints them on the EDT
+    private void repaintDamage() {
+        if (damage.isFull()) {
+            repaint();
+            return;
+        }
+        for (int i = 0; i < damage.size(); i++) {
+            Viewport.toComponent(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i), repaintBounds);
+            repaint(repaintBounds[0], repaintBounds[1], repaintBounds[2], repaintBounds[3]);
+        }
+    }
+
+    private void renderActive() {
+        if (damage.isEmpty()) {
+            return;
+        }
+        // The buffers can be lost (display change, minimise); redraw everything until a frame gets through
+        boolean lost;
+        do {
+            boolean restored;
+            do {
+                Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    drawDamage(g2);
+                } finally {
+                    g2.dispose();
+                }
+                restored = strategy.contentsRestored();
+                if (restored) {
+                    damage.addAll();
+                }
+            } while (restored);
+            if (governor != null) {
+                // Only the drawing: show() may wait for the display, which no tier makes faster
+                governor.record(System.nanoTime() - frameStart);
+            }
+            strategy.show();
+            lost = strategy.contentsLost();
+            if (lost) {
+                damage.addAll();
+            }
+        } while (lost);
+        // Flush the window system's queue so the frame shows now rather than whenever it batches
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void drawDamage(Graphics2D g2) {
+        Viewport.apply(g2, canvas, damage.isFull());
+        if (damage.isFull()) {
+            drawFrame(g2);
+            return;
+        }
+        // The back buffer still holds the last frame; only patch what changed
+        for (int i = 0; i < damage.size(); i++) {
+            Graphics2D clipped = (Graphics2D) g2.create();
+            damage.clip(clipped, i, Viewport.getScale() == 1 ? 0 : 1);
+            drawFrame(clipped);
+            clipped.dispose();
+        }
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        if (strategy != null) {
+            // The canvas on top is drawn by the loop thread
+            return;
+        }
         Graphics2D g2 = (Graphics2D) g;
+        long start = System.nanoTime();
+        Viewport.apply(g2, this, true);
+        drawFrame(g2);
+        if (governor != null) {
+            governor.record(System.nanoTime() - start);
+        }
+    }
 
+    private void drawFrame(Graphics2D g2) {
         // Always draw game scene (background, grid, etc.)
         pm.draw(g2);
 
         // Overlay menu if in MENU state
-        if (PlayManager.gameState == GameState.MENU) {
+        if (pm.gameState == GameState.MENU) {
             menu.draw(g2);
         }
+
+        if (showTiming && loop != null) {
+            g2.setColor(Color.GRAY);
+            g2.setFont(TIMING_FONT);
+            String summary = loop.timingSummary();
+            if (governor != null) {
+                summary += String.format(" | %s, %.2f ms p95 draw", appliedQuality, governor.getPercentileMillis());
+            }
+            String audio = se.audioSummary();
+            if (audio != null) {
+                summary += " | " + audio;
+            }
+            g2.drawString(summary, 8, HEIGHT - 8);
+        }
     }
 }
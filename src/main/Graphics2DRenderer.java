@@ -0,0 +1,130 @@
+package main;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+
+import mino.Block;
+import mino.BlockTiles;
+
+/**
+ * Draws the scene with plain Graphics2D calls; cached images are blitted with drawImage and
+ * Java2D takes care of blending, clipping and acceleration.
+ */
+final class Graphics2DRenderer implements Renderer {
+    static final String NAME = "java2d";
+
+    // Block outlines have always been drawn with the stroke the panels left set
+    static final BasicStroke PANEL_STROKE = new BasicStroke(2f);
+    private static final AlphaComposite FLASH = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.8f);
+
+    // The score glow is faded with one of these
+    private final AlphaComposite[] glowAlpha = new AlphaComposite[256];
+
+    Graphics2DRenderer() {
+        for (int a = 0; a < glowAlpha.length; a++) {
+            glowAlpha[a] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a / 255f);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void draw(Graphics2D g2, PlayScene scene) {
+        g2.setColor(scene.background);
+        g2.fillRect(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
+
+        scene.stars.draw(g2);
+
+        scene.chrome.draw(g2);
+        g2.setStroke(PANEL_STROKE);
+
+        // (Everything below is skipped when a partial repaint doesn't reach it)
+        if (g2.hitClip(scene.statsPanel.x, scene.statsPanel.y, scene.statsPanel.width, scene.statsPanel.height)) {
+            drawStats(g2, scene);
+        }
+
+        if (g2.hitClip(scene.holdPanel.x, scene.holdPanel.y, scene.holdPanel.width, scene.holdPanel.height)) {
+            drawPiece(g2, BlockTiles.PLAIN, scene.hold, scene.holdColor);
+        }
+
+        if (scene.showsPlayArea()
+                && g2.hitClip(scene.playColumn.x, scene.playColumn.y, scene.playColumn.width, scene.playColumn.height)) {
+            // The ghost first, behind everything
+            drawPiece(g2, BlockTiles.GHOST, scene.ghost, scene.ghostColor);
+            drawPiece(g2, BlockTiles.PLAIN, scene.current, scene.currentColor);
+
+            scene.field.draw(g2, scene.fieldX, scene.fieldY);
+
+            if (scene.flashRows != 0) {
+                Composite original = g2.getComposite();
+                g2.setColor(scene.flashColor);
+                g2.setComposite(FLASH);
+                for (int rows = scene.flashRows; rows != 0; rows &= rows - 1) {
+                    int row = Integer.numberOfTrailingZeros(rows);
+                    g2.fillRect(scene.fieldX, scene.fieldY + row * Block.SIZE, PlayfieldRaster.WIDTH, Block.SIZE);
+                }
+                g2.setComposite(original);
+            }
+
+            if (scene.overlay != null) {
+                scene.overlay.draw(g2);
+            }
+        }
+
+        if (scene.showsPlayArea()
+                && g2.hitClip(scene.nextPanel.x, scene.nextPanel.y, scene.nextPanel.width, scene.nextPanel.height)) {
+            drawPiece(g2, BlockTiles.PLAIN, scene.next, scene.nextColor);
+        }
+
+        if (scene.title.hitClip(g2, 0, scene.titleOffset)) {
+            scene.title.draw(g2, 0, scene.titleOffset);
+        }
+
+        // The level up effect goes over everything but the particles
+        if (scene.levelUpFrame >= 0) {
+            if (scene.levelUp != null) {
+                scene.levelUp.draw(g2, scene.levelUpFrame, scene.levelUpGlow);
+            } else {
+                scene.liveLevelUp.paint(g2);
+            }
+        }
+
+        scene.effects.draw(g2);
+    }
+
+    private static void drawPiece(Graphics2D g2, int variant, int[] blocks, int colorId) {
+        if (colorId < 0) {
+            return;
+        }
+        for (int i = 0; i < 4; i++) {
+            BlockTiles.draw(g2, variant, colorId, blocks[2 * i], blocks[2 * i + 1]);
+        }
+    }
+
+    // The values of the stats panel; the labels are part of the chrome
+    private void drawStats(Graphics2D g2, PlayScene scene) {
+        int x = scene.statsPanel.x + 30;
+        int y = scene.statsPanel.y + 80;
+
+        scene.valueDigits.draw(g2, scene.level, x + 120, y);
+        g2.setColor(scene.levelColor);
+        g2.fillRoundRect(x, y + 10, scene.levelBarWidth, 8, 5, 5);
+
+        y += 70;
+        scene.valueDigits.draw(g2, scene.lines, x + 120, y);
+
+        y += 70;
+        if (scene.scoreGlowAlpha > 0) {
+            Composite original = g2.getComposite();
+            g2.setComposite(glowAlpha[scene.scoreGlowAlpha]);
+            scene.glowDigits.draw(g2, scene.score, x + 121, y + 1);
+            g2.setComposite(original);
+        }
+        scene.valueDigits.draw(g2, scene.score, x + 120, y);
+    }
+}
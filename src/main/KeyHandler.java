@@ -3,10 +3,15 @@ package main;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
+import engine.Input;
+
 public class KeyHandler implements KeyListener {
-    public static boolean upPressed, downPressed, leftPressed, rightPressed;
-    public static boolean pausePressed, hardDropPressed, holdPressed;
-    public static boolean enterPressed;
+    public boolean upPressed, downPressed, leftPressed, rightPressed;
+    public boolean pausePressed, hardDropPressed, holdPressed;
+    public boolean enterPressed;
+    // Replay controls: speed key 1-3 (0 when none) and seek direction (-1, 0 or 1)
+    public int replaySpeedKey;
+    public int replaySeek;
 
     @Override
     public void keyTyped(KeyEvent e) {}
@@ -16,24 +21,23 @@ public class KeyHandler implements KeyListener {
         int code = e.getKeyCode();
 
         // Pause handling (works globally)
-        if (code == KeyEvent.VK_ESCAPE) {
-            pausePressed = true;
-        }
-
-        // ENTER key handling (works in all states, including GAME_OVER)
-        if (PlayManager.gameState == GameState.GAME_OVER) {
-            enterPressed = true;
-        }
-
-        // Game controls (only apply during PLAYING state)
-        if (PlayManager.gameState == GameState.PLAYING) {
-            if (code == KeyEvent.VK_W) upPressed = true;
-            if (code == KeyEvent.VK_A) leftPressed = true;
-            if (code == KeyEvent.VK_S) downPressed = true;
-            if (code == KeyEvent.VK_D) rightPressed = true;
-            if (code == KeyEvent.VK_SPACE) hardDropPressed = true;
-            if (code == KeyEvent.VK_C) holdPressed = true;
-        }
+        if (code == KeyEvent.VK_ESCAPE) pausePressed = true;
+        if (code == KeyEvent.VK_ENTER) enterPressed = true;
+
+        // Game controls (GamePanel only passes them on during PLAYING state)
+        if (code == KeyEvent.VK_W) upPressed = true;
+        if (code == KeyEvent.VK_A) leftPressed = true;
+        if (code == KeyEvent.VK_S) downPressed = true;
+        if (code == KeyEvent.VK_D) rightPressed = true;
+        if (code == KeyEvent.VK_SPACE) hardDropPressed = true;
+        if (code == KeyEvent.VK_C) holdPressed = true;
+
+        // Replay controls
+        if (code == KeyEvent.VK_1) replaySpeedKey = 1;
+        if (code == KeyEvent.VK_2) replaySpeedKey = 2;
+        if (code == KeyEvent.VK_3) replaySpeedKey = 3;
+        if (code == KeyEvent.VK_LEFT) replaySeek = -1;
+        if (code == KeyEvent.VK_RIGHT) replaySeek = 1;
     }
 
     @Override
@@ -50,9 +54,27 @@ public class KeyHandler implements KeyListener {
         if (code == KeyEvent.VK_ENTER) enterPressed = false;
     }
 
-    public static void resetKeyStates() {
+    /**
+     * Returns the game controls pressed since the last call as {@link Input} bits
+     * and clears them, so every key press acts once.
+     */
+    public int pollInput() {
+        int input = 0;
+        if (upPressed) input |= Input.ROTATE;
+        if (leftPressed) input |= Input.LEFT;
+        if (rightPressed) input |= Input.RIGHT;
+        if (downPressed) input |= Input.DOWN;
+        if (hardDropPressed) input |= Input.HARD_DROP;
+        if (holdPressed) input |= Input.HOLD;
+        upPressed = downPressed = leftPressed = rightPressed = false;
+        hardDropPressed = holdPressed = false;
+        return input;
+    }
+
+    public void resetKeyStates() {
         upPressed = downPressed = leftPressed = rightPressed = false;
         pausePressed = holdPressed = hardDropPressed = false;
         enterPressed = false;
+        replaySpeedKey = replaySeek = 0;
     }
 }
@@ -0,0 +1,89 @@
+package main;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * A rectangle of the screen whose content does not change between frames.
+ * It is painted once into an image in the screen's own pixel format and only blitted
+ * afterwards, until {@link #invalidate()} is called (on a theme change) or the
+ * {@link Viewport} scale changes, which paints it again at the new resolution.
+ */
+class Layer {
+
+    /** Paints the content in screen coordinates; the layer takes care of its offset. */
+    interface Painter {
+        void paint(Graphics2D g2);
+    }
+
+    private final int x, y, width, height;
+    private final boolean opaque;
+    private final Painter painter;
+    private BufferedImage image;
+    private double imageScale;
+
+    Layer(int x, int y, int width, int height, boolean opaque, Painter painter) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.opaque = opaque;
+        this.painter = painter;
+    }
+
+    void draw(Graphics2D g2) {
+        draw(g2, 0, 0);
+    }
+
+    /** Draws the layer moved by (dx, dy), for content that only slides around. */
+    void draw(Graphics2D g2, int dx, int dy) {
+        Viewport.drawImage(g2, image(), x + dx, y + dy);
+    }
+
+    /** Draws the layer moved by (dx, dy) into a software frame. */
+    void draw(PixelRenderer target, int dx, int dy) {
+        if (target.hitClip(x + dx, y + dy, width, height)) {
+            target.blit(image(), x + dx, y + dy, 0, 0, 255);
+        }
+    }
+
+    // The image at the current scale, painted when there is none yet
+    private BufferedImage image() {
+        double scale = Viewport.getScale();
+        if (image == null || imageScale != scale) {
+            image = Viewport.createImage(width, height, opaque);
+            imageScale = scale;
+            Graphics2D ig = image.createGraphics();
+            ig.scale(scale, scale);
+            ig.translate(-x, -y);
+            painter.paint(ig);
+            ig.dispose();
+        }
+        return image;
+    }
+
+    /** Whether the layer drawn moved by (dx, dy) would show through the graphics' clip. */
+    boolean hitClip(Graphics2D g2, int dx, int dy) {
+        return g2.hitClip(x + dx, y + dy, width, height);
+    }
+
+    /** Marks where the layer is when drawn moved by (dx, dy) as needing a repaint. */
+    void addDamage(DamageRegion damage, int dx, int dy) {
+        damage.add(x + dx, y + dy, width, height);
+    }
+
+    void invalidate() {
+        image = null;
+    }
+
+    // Matches the screen's pixel layout where there is one, so blits need no conversion; sizes are in device pixels
+    static BufferedImage createImage(int width, int height, boolean opaque) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,195 @@
+package main;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RadialGradientPaint;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The level up effect for one level, pre-rendered so that playing a frame is a few blits.
+ * Building the frames takes a while (gradients and large text), so it is done by
+ * {@link #bake} on a background thread, ideally before the level is reached.
+ * <p>
+ * A frame is made of a full-screen flash (a single fill), the glow, the plate behind the
+ * level number and the text. The glow changes size and strength every frame and is the same
+ * at every level, so its frames are baked once and shared; they are kept at half resolution,
+ * which a soft gradient doesn't show and which keeps them a few megabytes. The plate only
+ * changes in strength, so it is one image blitted with a per-frame alpha, and the text never
+ * changes. The plate and text are baked at the {@link Viewport} scale of the moment; the glow
+ * is soft enough to be stretched.
+ */
+class LevelUpAnimation {
+    /** Frames run from 0 to DURATION inclusive, one per tick. */
+    static final int DURATION = 60;
+
+    private static final ExecutorService BAKER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "animation-baker");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static final int CENTER_X = GamePanel.WIDTH / 2;
+    private static final int CENTER_Y = GamePanel.HEIGHT / 2;
+
+    /** Starts baking the animation for a level on the background thread. */
+    static Future<LevelUpAnimation> bake(int level, Color levelColor) {
+        double scale = Viewport.getScale();
+        return BAKER.submit(() -> new LevelUpAnimation(level, levelColor, scale));
+    }
+
+    // The glow and flash of every frame, the same at every level
+    private static final class Glow {
+        final Color[] flash = new Color[DURATION + 1];
+        final BufferedImage[] frames = new BufferedImage[DURATION + 1];
+        final int[] radius = new int[DURATION + 1];
+
+        Glow() {
+            for (int frame = 0; frame <= DURATION; frame++) {
+                float progress = frame / (float) DURATION;
+                if (progress < 0.3f) {
+                    // (abs: a negative sine would be an illegal alpha)
+                    float flashIntensity = (float) Math.abs(Math.sin(progress * Math.PI * 10)) * 0.7f;
+                    flash[frame] = new Color(1f, 1f, 0.8f, flashIntensity * 0.7f);
+                }
+
+                float pulse = (float) (0.5f + 0.5f * Math.sin(progress * Math.PI * 8));
+                float circleSize = progress < 0.5f ? progress * 2 : (1 - progress) * 2;
+                float circleRadius = GamePanel.WIDTH * 0.3f * circleSize;
+                // The gradient has no size on the first and last frame
+                if (circleRadius < 1f) {
+                    continue;
+                }
+                int r = (int) circleRadius;
+                radius[frame] = r;
+                BufferedImage image = Layer.createImage(r, r, false);
+                Graphics2D g2 = image.createGraphics();
+                g2.scale(0.5, 0.5);
+                g2.setPaint(new RadialGradientPaint(new Point2D.Float(r, r), circleRadius,
+                        new float[] {0.0f, 0.7f, 1.0f},
+                        new Color[] {
+                            new Color(255, 255, 0, (int) (220 * pulse * (1 - progress))),
+                            new Color(255, 150, 0, (int) (180 * pulse * (1 - progress))),
+                            new Color(255, 50, 0, 0)
+                        }));
+                g2.fillOval(0, 0, r * 2, r * 2);
+                g2.dispose();
+                frames[frame] = image;
+            }
+        }
+    }
+
+    // Built by the first animation baked; only the baking thread touches it
+    private static Glow sharedGlow;
+
+    private final Glow glow;
+    private final double scale;
+    private final BufferedImage plate;
+    private final int plateX, plateY;
+    private final Composite[] plateAlpha = new Composite[DURATION + 1];
+    private final BufferedImage text;
+    private final int textX, textY;
+
+    private LevelUpAnimation(int level, Color levelColor, double scale) {
+        this.scale = scale;
+        if (sharedGlow == null) {
+            sharedGlow = new Glow();
+        }
+        glow = sharedGlow;
+
+        Font levelUpFont = Fonts.LEVEL_UP;
+        Font levelFont = Fonts.LEVEL_NUMBER;
+        String levelUpText = "LEVEL UP!";
+        String levelText = "LEVEL " + level;
+
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D pg = probe.createGraphics();
+        FontMetrics levelUpMetrics = pg.getFontMetrics(levelUpFont);
+        FontMetrics levelMetrics = pg.getFontMetrics(levelFont);
+        pg.dispose();
+        int textWidth = levelUpMetrics.stringWidth(levelUpText);
+        int levelTextWidth = levelMetrics.stringWidth(levelText);
+
+        // The plate behind the level number, drawn solid and faded per frame when blitted
+        plateX = CENTER_X - levelTextWidth / 2 - 20;
+        plateY = CENTER_Y + 40;
+        plate = Layer.createImage((int) Math.ceil((levelTextWidth + 40) * scale), (int) Math.ceil(70 * scale), false);
+        Graphics2D g2 = plate.createGraphics();
+        g2.scale(scale, scale);
+        g2.setColor(Color.WHITE);
+        g2.fillRoundRect(0, 0, levelTextWidth + 40, 70, 20, 20);
+        g2.dispose();
+        for (int frame = 0; frame <= DURATION; frame++) {
+            float progress = frame / (float) DURATION;
+            float bgPulse = (float) (0.4f + 0.2f * Math.sin(progress * Math.PI * 12));
+            plateAlpha[frame] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (int) (120 * bgPulse) / 255f);
+        }
+
+        // Both lines of text with their shadows
+        int halfWidth = Math.max(textWidth, levelTextWidth) / 2 + 4;
+        textX = CENTER_X - halfWidth;
+        textY = CENTER_Y - levelUpMetrics.getAscent() - 4;
+        int bottom = CENTER_Y + 92 + levelMetrics.getDescent() + 4;
+        text = Layer.createImage((int) Math.ceil(halfWidth * 2 * scale), (int) Math.ceil((bottom - textY) * scale), false);
+        g2 = text.createGraphics();
+        g2.scale(scale, scale);
+        g2.translate(-textX, -textY);
+
+        g2.setFont(levelUpFont);
+        g2.setColor(new Color(0, 0, 0, 150));
+        g2.drawString(levelUpText, CENTER_X - textWidth / 2 + 2, CENTER_Y + 2);
+        g2.setPaint(new GradientPaint(
+                CENTER_X - textWidth / 2, CENTER_Y - 30, new Color(255, 255, 100),
+                CENTER_X + textWidth / 2, CENTER_Y + 30, new Color(255, 200, 0)));
+        g2.drawString(levelUpText, CENTER_X - textWidth / 2, CENTER_Y);
+
+        g2.setFont(levelFont);
+        g2.setColor(new Color(0, 0, 0, 150));
+        g2.drawString(levelText, CENTER_X - levelTextWidth / 2 + 2, CENTER_Y + 92);
+        Color levelColorEnd = new Color(
+                Math.min(255, levelColor.getRed() + 50),
+                Math.min(255, levelColor.getGreen() + 50),
+                Math.min(255, levelColor.getBlue() + 50));
+        g2.setPaint(new GradientPaint(
+                CENTER_X - levelTextWidth / 2, CENTER_Y + 50, levelColor,
+                CENTER_X + levelTextWidth / 2, CENTER_Y + 120, levelColorEnd));
+        g2.drawString(levelText, CENTER_X - levelTextWidth / 2, CENTER_Y + 90);
+        g2.dispose();
+    }
+
+    /** The screen scale the animation was baked for. */
+    double getScale() {
+        return scale;
+    }
+
+    /** Draws frame 0 to {@link #DURATION} over the whole screen; without glow, only the plate and text. */
+    void draw(Graphics2D g2, int frame, boolean withGlow) {
+        frame = Math.max(0, Math.min(DURATION, frame));
+        Color originalColor = g2.getColor();
+        Composite originalComposite = g2.getComposite();
+
+        if (withGlow && glow.flash[frame] != null) {
+            g2.setColor(glow.flash[frame]);
+            g2.fillRect(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
+        }
+        if (withGlow && glow.frames[frame] != null) {
+            int r = glow.radius[frame];
+            g2.drawImage(glow.frames[frame], CENTER_X - r, CENTER_Y - r, r * 2, r * 2, null);
+        }
+        g2.setComposite(plateAlpha[frame]);
+        Viewport.drawImage(g2, plate, plateX, plateY);
+        g2.setComposite(originalComposite);
+        Viewport.drawImage(g2, text, textX, textY);
+
+        g2.setColor(originalColor);
+    }
+}
@@ -1,16 +1,77 @@
 package main;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import javax.swing.JFrame;
 
+import engine.ReplayPlayer;
+
 public class Main {
     public static void main(String[] args) {
         JFrame window = new JFrame("SWING & STACK");
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        window.setResizable(false);
+        // The screen scales to whatever size the window is given
+        window.setResizable(true);
 
         GamePanel gp = new GamePanel();
         window.add(gp);
         
+        for (String arg : args) {
+            if (arg.equals("--timing")) {
+                gp.showTiming = true;
+            }
+            if (arg.equals("--passive")) {
+                gp.activeRendering = false;
+            }
+            // --reduced-motion keeps the title, stars and score glow still, so idle screens cost nothing
+            if (arg.equals("--reduced-motion")) {
+                gp.reducedMotion = true;
+            }
+            // --fullscreen fills the screen with an undecorated window
+            if (arg.equals("--fullscreen")) {
+                window.setUndecorated(true);
+                window.setExtendedState(JFrame.MAXIMIZED_BOTH);
+            }
+        }
+
+        for (int i = 0; i + 1 < args.length; i++) {
+            // --fps <rate> renders at the display's refresh rate; the game itself always runs at 60 ticks
+            if (args[i].equals("--fps")) {
+                int rate = -1;
+                try {
+                    rate = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+                if (rate >= 1) {
+                    gp.frameRate = rate;
+                } else {
+                    System.err.println("Invalid frame rate " + args[i + 1] + ", using " + gp.frameRate);
+                }
+            }
+            // --renderer <java2d|pixels|auto> picks how the play scene is drawn; auto times both first
+            if (args[i].equals("--renderer")) {
+                gp.renderer = args[i + 1];
+            }
+            // --quality <full|reduced|low|minimal> fixes how much decoration is drawn; by default it follows the frame times
+            if (args[i].equals("--quality")) {
+                gp.quality = args[i + 1];
+            }
+            // --record <dir> saves a replay of every game into the directory
+            if (args[i].equals("--record")) {
+                gp.pm.setReplayDirectory(Paths.get(args[i + 1]));
+            }
+            // --replay <file> plays a recorded game back instead (1/2/3 set the speed, arrows seek)
+            if (args[i].equals("--replay")) {
+                try {
+                    gp.startReplay(ReplayPlayer.open(Paths.get(args[i + 1])));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        
         // ===== ADD THESE 2 CRITICAL LINES =====
         gp.requestFocusInWindow();  // Ensures panel receives key inputs
         window.pack();              // Properly sizes the window
@@ -20,4 +81,4 @@ public class Main {
 
         gp.launchGame();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -2,7 +2,6 @@ package main;
 
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
-import java.awt.geom.AffineTransform;
 
 public class Menu {
     // Constants
@@ -27,10 +26,50 @@ public class Menu {
     private int currentlyHovered = 0; // 0 = none, 1 = play, 2 = quit
     private float colorShift = 0f;
     private final long startTime = System.currentTimeMillis();
+    // Keeps the title and subtitle from floating (--reduced-motion)
+    boolean reducedMotion;
+    // Below the tiers with gradients the buttons are filled flat
+    Quality quality = Quality.FULL;
+
+    // Background, title box and footer never change; the title only floats up and down
+    private final Layer backgroundLayer = new Layer(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT, false, this::paintBackground);
+    private final Layer titleLayer = new Layer(0, 80, GamePanel.WIDTH, 100, false, this::paintTitle);
+    private final Layer subtitleLayer = new Layer(0, 160, GamePanel.WIDTH, 40, false, this::paintSubtitle);
+    // Only the labels of the buttons are cached; the buttons themselves change with the hover
+    private final Layer playLabel = new Layer(0, 300, GamePanel.WIDTH, 50, false, g2 -> paintButtonLabel(g2, playButton, "PLAY"));
+    private final Layer quitLabel = new Layer(0, 400, GamePanel.WIDTH, 50, false, g2 -> paintButtonLabel(g2, quitButton, "QUIT"));
 
     public void draw(Graphics2D g2) {
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        backgroundLayer.draw(g2);
+
+        drawAnimatedTitle(g2);
+
+        // Subtitle
+        double time = (System.currentTimeMillis() - startTime) / 1000.0;
+        int subtitleOffset = reducedMotion ? 0 : (int)(Math.sin(time * 2 + 1) * 3);
+        subtitleLayer.draw(g2, 0, subtitleOffset);
+
+        // Buttons
+        drawButton(g2, playButton, playLabel, PLAY_BUTTON_TOP_COLOR, PLAY_BUTTON_BOTTOM_COLOR,
+                currentlyHovered == 1 ? buttonHoverAnimation : 0f);
+        drawButton(g2, quitButton, quitLabel, QUIT_BUTTON_TOP_COLOR, QUIT_BUTTON_BOTTOM_COLOR,
+                currentlyHovered == 2 ? buttonHoverAnimation : 0f);
+    }
+
+    /** Drops the cached images so they are painted again, such as after a theme change. */
+    public void invalidateLayers() {
+        backgroundLayer.invalidate();
+        titleLayer.invalidate();
+        subtitleLayer.invalidate();
+        playLabel.invalidate();
+        quitLabel.invalidate();
+    }
+
+    private void paintBackground(Graphics2D g2) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
         // Background
         GradientPaint bgGradient = new GradientPaint(
                 0, 0, BG_TOP_COLOR,
@@ -46,48 +85,38 @@ public class Menu {
         g2.setStroke(new BasicStroke(2));
         g2.draw(titleBox);
 
-        drawAnimatedTitle(g2);
-
-        // Subtitle
-        double time = (System.currentTimeMillis() - startTime) / 1000.0;
-        int subtitleOffset = (int)(Math.sin(time * 2 + 1) * 3);
-        g2.setColor(new Color(200, 200, 255));
-        g2.setFont(new Font("Arial", Font.ITALIC, 24));
-        g2.drawString("The Classic Block Game", 418, 190 + subtitleOffset);
-
-        // Buttons
-        drawButton(g2, playButton, "PLAY", PLAY_BUTTON_TOP_COLOR, PLAY_BUTTON_BOTTOM_COLOR,
-                currentlyHovered == 1 ? buttonHoverAnimation : 0f);
-        drawButton(g2, quitButton, "QUIT", QUIT_BUTTON_TOP_COLOR, QUIT_BUTTON_BOTTOM_COLOR,
-                currentlyHovered == 2 ? buttonHoverAnimation : 0f);
-
         // Footer
         g2.setColor(new Color(200, 200, 200, 150));
-        g2.setFont(new Font("Arial", Font.PLAIN, 14));
+        g2.setFont(Fonts.FOOTER);
         g2.drawString("© 2025 Tetris Clone B Group 4", 450, 550);
     }
 
     private void drawAnimatedTitle(Graphics2D g2) {
-        int titleX = 368;
-        int titleBaseY = 150;
-
         double time = (System.currentTimeMillis() - startTime) / 1000.0;
-        int offsetY = (int)(Math.sin(time * 1.5) * 5); // Gentle float up/down
+        int offsetY = reducedMotion ? 0 : (int)(Math.sin(time * 1.5) * 5); // Gentle float up/down
+
+        titleLayer.draw(g2, 0, offsetY);
+    }
 
-        AffineTransform originalTransform = g2.getTransform();
+    // Paints the title at rest, for titleLayer
+    private void paintTitle(Graphics2D g2) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int titleX = 368;
+        int titleBaseY = 150;
 
-        g2.setFont(new Font("Impact", Font.BOLD, 55));
+        g2.setFont(Fonts.MENU_TITLE);
 
         // Glow layers
         for (int i = 8; i > 0; i--) {
             float alpha = i / 16f;
             g2.setColor(new Color(255, 255, 255, (int)(alpha * 50)));
-            g2.drawString("SWING & STACK", titleX - i/2, titleBaseY + offsetY + i/2);
+            g2.drawString("SWING & STACK", titleX - i/2, titleBaseY + i/2);
         }
 
         // Shadow layer
         g2.setColor(new Color(50, 50, 50, 200));
-        g2.drawString("SWING & STACK", titleX + 3, titleBaseY + offsetY + 3);
+        g2.drawString("SWING & STACK", titleX + 3, titleBaseY + 3);
 
         // Gradient title fill
         GradientPaint gradient = new GradientPaint(
@@ -95,33 +124,47 @@ public class Menu {
                 titleX, titleBaseY + 40, new Color(255, 150, 50)  // End color
         );
         g2.setPaint(gradient);
-        g2.drawString("SWING & STACK", titleX, titleBaseY + offsetY);
-        g2.setPaint(null);
+        g2.drawString("SWING & STACK", titleX, titleBaseY);
+    }
 
-        g2.setTransform(originalTransform);
+    // Paints the subtitle at rest, for subtitleLayer
+    private void paintSubtitle(Graphics2D g2) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(new Color(200, 200, 255));
+        g2.setFont(Fonts.MENU_SUBTITLE);
+        g2.drawString("The Classic Block Game", 418, 190);
     }
 
-    private void drawButton(Graphics2D g2, RoundRectangle2D button, String text,
+    private void paintButtonLabel(Graphics2D g2, RoundRectangle2D button, String text) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(Color.WHITE);
+        g2.setFont(Fonts.BUTTON);
+        int textX = (int)(button.getX() + (button.getWidth() - g2.getFontMetrics().stringWidth(text)) / 2);
+        int textY = (int)(button.getY() + (button.getHeight() + g2.getFontMetrics().getAscent() - g2.getFontMetrics().getDescent()) / 2);
+        g2.drawString(text, textX, textY);
+    }
+
+    private void drawButton(Graphics2D g2, RoundRectangle2D button, Layer label,
                             Color topColor, Color bottomColor, float hoverIntensity) {
         Color hoverTop = brighter(topColor, 0.2f * hoverIntensity);
         Color hoverBottom = brighter(bottomColor, 0.2f * hoverIntensity);
 
-        GradientPaint buttonGradient = new GradientPaint(
-                (float)button.getX(), (float)button.getY(), hoverTop,
-                (float)button.getX(), (float)(button.getY() + button.getHeight()), hoverBottom
-        );
-        g2.setPaint(buttonGradient);
+        if (quality.gradients) {
+            GradientPaint buttonGradient = new GradientPaint(
+                    (float)button.getX(), (float)button.getY(), hoverTop,
+                    (float)button.getX(), (float)(button.getY() + button.getHeight()), hoverBottom
+            );
+            g2.setPaint(buttonGradient);
+        } else {
+            g2.setColor(hoverBottom);
+        }
         g2.fill(button);
 
         g2.setColor(new Color(255, 255, 255, (int)(80 + 100 * hoverIntensity)));
         g2.setStroke(new BasicStroke(2 + 2 * hoverIntensity));
         g2.draw(button);
 
-        g2.setColor(Color.WHITE);
-        g2.setFont(new Font("Arial", Font.BOLD, 36));
-        int textX = (int)(button.getX() + (button.getWidth() - g2.getFontMetrics().stringWidth(text)) / 2);
-        int textY = (int)(button.getY() + (button.getHeight() + g2.getFontMetrics().getAscent() - g2.getFontMetrics().getDescent()) / 2);
-        g2.drawString(text, textX, textY);
+        label.draw(g2);
     }
 
     private Color brighter(Color color, float factor) {
@@ -142,6 +185,12 @@ public class Menu {
         buttonHoverAnimation += (target - buttonHoverAnimation) * 0.1f;
     }
 
+    /** Whether the buttons are still fading to their hover state; the floating title doesn't count. */
+    public boolean isAnimating() {
+        float target = (currentlyHovered != 0) ? 1f : 0f;
+        return Math.abs(target - buttonHoverAnimation) > 0.01f;
+    }
+
     public boolean handleClick(int x, int y) {
         if (playButton.contains(x, y)) {
             return true;
@@ -0,0 +1,290 @@
+package main;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * A music track streamed from its file. A decoder thread reads the file a little ahead,
+ * converts it to {@link Sound#OUTPUT_FORMAT} samples and puts them in a ring buffer of
+ * {@link #RING_FRAMES} frames; the {@link AudioMixer} takes a chunk at a time out of it. Only
+ * the ring is ever in memory, never the decoded track. Its controls are called by the mixer's
+ * thread, as it carries out the game's commands.
+ * <p>
+ * The ring has one writer (the decoder) and one reader (the mixer), each moving its own
+ * volatile frame count, so neither waits for the other. Starting over (play or stop) only
+ * bumps an epoch: the decoder reopens the file on its own thread, and the reader skips to
+ * where the new epoch's frames begin. Pausing stops the reader where it is, to the frame.
+ * At the end of the file a looping track is reopened and carries on without a gap, since
+ * the ring still holds what comes before.
+ */
+final class MusicStream implements Runnable {
+    // About a second ahead; enough to ride out a slow disk or a long GC on the decoder
+    static final int RING_FRAMES = 48000;
+    // Frames decoded at a time
+    private static final int BLOCK_FRAMES = 4096;
+    // How long the decoder sleeps when the ring is full: well under what the ring holds
+    private static final long FULL_WAIT_NANOS = 100_000_000L;
+
+    private final URL url;
+    private final Thread thread;
+    private final short[] ring = new short[RING_FRAMES * 2];
+    // Frames ever written and read; the ring holds written - read of them
+    private volatile long written;
+    private volatile long read;
+
+    // Starting over: the epoch asked for, the one the decoder has reopened the file for, and
+    // the first frame of it in the ring
+    private volatile int requestedEpoch;
+    private volatile int decodedEpoch = -1;
+    private volatile long epochStart;
+    // Set by the decoder when the file ended and the track doesn't loop; cleared on a new epoch
+    private volatile boolean ended;
+
+    private volatile boolean playing;
+    private volatile boolean looping;
+    private volatile boolean closed;
+
+    private volatile long starvedChunks;
+
+    // Decoder state: the source and its conversion to the output rate
+    private AudioInputStream source;
+    private int sourceChannels;
+    private double step;
+    private double at;
+    private short previousLeft, previousRight;
+    private byte[] sourceBytes = new byte[0];
+
+    MusicStream(URL url) {
+        this.url = url;
+        thread = new Thread(this, "music-decoder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Plays the track from the start. */
+    void play() {
+        restart();
+        playing = true;
+    }
+
+    /** Holds the track where it is; {@link #resume} carries on from that very frame. */
+    void pause() {
+        playing = false;
+    }
+
+    void resume() {
+        playing = true;
+    }
+
+    /** Stops the track and rewinds it. */
+    void stop() {
+        playing = false;
+        restart();
+    }
+
+    void setLooping(boolean looping) {
+        this.looping = looping;
+        if (looping) {
+            // In case the decoder already reached the end: it reopens the file and carries on
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Stops the decoder thread and closes the file. */
+    void close() {
+        closed = true;
+        playing = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void restart() {
+        requestedEpoch++;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Adds the next frames of the track, times gain (1 << 15 is 1.0), into mix; on the mixer's
+     * thread. Adds nothing while paused or while the decoder is still reopening the file.
+     */
+    void mixInto(int[] mix, int frames, int gain) {
+        if (!playing) {
+            return;
+        }
+        int epoch = requestedEpoch;
+        if (decodedEpoch != epoch) {
+            return;
+        }
+        long from = read;
+        if (from < epochStart) {
+            // Drop what is left of the last epoch
+            from = epochStart;
+        }
+        int n = (int) Math.min(frames, written - from);
+        for (int f = 0; f < n; f++) {
+            int i = (int) ((from + f) % RING_FRAMES) * 2;
+            mix[f * 2] += ring[i] * gain >> 15;
+            mix[f * 2 + 1] += ring[i + 1] * gain >> 15;
+        }
+        read = from + n;
+        if (n < frames) {
+            if (ended && !looping && decodedEpoch == epoch) {
+                // Played to the end
+                playing = false;
+            } else {
+                starvedChunks++;
+            }
+        }
+        if (n > 0) {
+            // Room in the ring again
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Chunks the decoder hadn't filled in time, so the music dropped out. */
+    long getStarvedChunks() {
+        return starvedChunks;
+    }
+
+    @Override
+    public void run() {
+        int epoch = -1;
+        while (!closed) {
+            if (epoch != requestedEpoch) {
+                epoch = requestedEpoch;
+                open();
+                // From the start: nothing before the first frame to resample from
+                at = 0;
+                previousLeft = previousRight = 0;
+                ended = false;
+                epochStart = written;
+                if (source != null) {
+                    // So the reader finds frames there from the start, not a dropout
+                    decodeBlock();
+                }
+                decodedEpoch = epoch;
+            }
+            if (ended && looping && source != null) {
+                // Looping was turned on after the end was reached
+                open();
+                ended = false;
+            }
+            long free = RING_FRAMES - (written - Math.max(read, epochStart));
+            // (a resampled block can come out a frame longer)
+            if (source == null || ended || free <= BLOCK_FRAMES) {
+                // Nothing to do until the reader makes room, or a restart or loop comes in
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+                continue;
+            }
+            decodeBlock();
+        }
+        closeSource();
+    }
+
+    private void open() {
+        closeSource();
+        try {
+            AudioInputStream file = AudioSystem.getAudioInputStream(url);
+            AudioFormat from = file.getFormat();
+            // 16-bit little-endian PCM at the file's own rate and channels; Java Sound doesn't resample
+            AudioFormat pcm16 = new AudioFormat(from.getSampleRate(), 16, from.getChannels(), true, false);
+            source = from.matches(pcm16) ? file : AudioSystem.getAudioInputStream(pcm16, file);
+            sourceChannels = pcm16.getChannels();
+            step = pcm16.getSampleRate() / Sound.OUTPUT_FORMAT.getSampleRate();
+            int blockBytes = Math.max(1, (int) (BLOCK_FRAMES * step)) * 2 * sourceChannels;
+            if (sourceBytes.length < blockBytes) {
+                sourceBytes = new byte[blockBytes];
+            }
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            e.printStackTrace();
+            source = null;
+        }
+    }
+
+    private void closeSource() {
+        if (source != null) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            source = null;
+        }
+    }
+
+    // Reads a block of the file into the ring; at the end of it the track loops or ends
+    private void decodeBlock() {
+        int frameBytes = 2 * sourceChannels;
+        // Few enough source frames that their output fits in a block
+        int want = Math.max(1, (int) (BLOCK_FRAMES * step)) * frameBytes;
+        int got = 0;
+        try {
+            int n;
+            while (got < want && (n = source.read(sourceBytes, got, want - got)) > 0) {
+                got += n;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        int frames = got / frameBytes;
+        if (frames > 0) {
+            convert(frames);
+        }
+        if (got < want) {
+            if (looping) {
+                open();
+            } else {
+                ended = true;
+            }
+        }
+    }
+
+    // Source frames in sourceBytes to output frames in the ring, resampled linearly across blocks.
+    // A loop is one more block boundary, from the last frame of the file to the first.
+    private void convert(int frames) {
+        long w = written;
+        if (step == 1) {
+            for (int f = 0; f < frames; f++) {
+                int i = (int) (w++ % RING_FRAMES) * 2;
+                ring[i] = left(f);
+                ring[i + 1] = right(f);
+            }
+        } else {
+            // at is measured from the last frame of the previous block, at -1
+            while (at < frames - 1) {
+                int f = (int) Math.floor(at);
+                double t = at - f;
+                int i = (int) (w++ % RING_FRAMES) * 2;
+                ring[i] = (short) Math.round(lerp(f < 0 ? previousLeft : left(f), left(f + 1), t));
+                ring[i + 1] = (short) Math.round(lerp(f < 0 ? previousRight : right(f), right(f + 1), t));
+                at += step;
+            }
+            at -= frames;
+            previousLeft = left(frames - 1);
+            previousRight = right(frames - 1);
+        }
+        written = w;
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    private short left(int frame) {
+        return sample(frame * sourceChannels);
+    }
+
+    // Mono goes to both sides; past two channels only the front pair is kept
+    private short right(int frame) {
+        return sample(frame * sourceChannels + Math.min(1, sourceChannels - 1));
+    }
+
+    private short sample(int index) {
+        return (short) ((sourceBytes[index * 2] & 0xFF) | sourceBytes[index * 2 + 1] << 8);
+    }
+}
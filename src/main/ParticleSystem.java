@@ -0,0 +1,330 @@
+package main;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Small round particles kept in parallel primitive arrays: background stars that pulse in
+ * place, sparkles that swirl out and fade, and debris that falls and fades.
+ * Brightness goes through a sine table and is quantized to {@link #ALPHA_LEVELS} alpha steps;
+ * every color, alpha step and size is pre-drawn once into a sprite sheet, so a particle costs
+ * one plain blit (translucent fills go through a much slower path in Java2D and allocate on
+ * every call). Updating and drawing allocate nothing. When the arrays are full new particles
+ * are dropped.
+ */
+class ParticleSystem {
+    /** Stays where it is and pulses forever. */
+    static final byte STAR = 0;
+    /** Moves, turns by its spin, pulses in size and fades out over its lifetime. */
+    static final byte SPARK = 1;
+    /** Moves, falls and fades out over its lifetime. */
+    static final byte DEBRIS = 2;
+
+    static final int ALPHA_LEVELS = 32;
+    /** Particles are drawn at most this many pixels across. */
+    static final int MAX_SIZE = 8;
+
+    // One full turn is SINE_SIZE phase units
+    static final int SINE_SIZE = 1024;
+    private static final float[] SINE = new float[SINE_SIZE];
+    static {
+        for (int i = 0; i < SINE_SIZE; i++) {
+            SINE[i] = (float) Math.sin(2 * Math.PI * i / SINE_SIZE);
+        }
+    }
+
+    static float sin(float phase) {
+        return SINE[(int) phase & (SINE_SIZE - 1)];
+    }
+
+    static float cos(float phase) {
+        return SINE[((int) phase + SINE_SIZE / 4) & (SINE_SIZE - 1)];
+    }
+
+    /** Converts radians to phase units. */
+    static float phase(double radians) {
+        return (float) (radians * SINE_SIZE / (2 * Math.PI));
+    }
+
+    private static final float GRAVITY = 0.25f;
+
+    // sprites[(color * ALPHA_LEVELS + level) * MAX_SIZE + size - 1], all cut from one sheet
+    // drawn at the Viewport scale; drawn again when that changes
+    private final Color[] colors;
+    private BufferedImage[] sprites;
+    private double spriteScale;
+
+    private final int capacity;
+    private int count;
+    // Only this many of the particles are settled and drawn
+    private int limit = Integer.MAX_VALUE;
+    private final byte[] mode;
+    private final float[] x, y, vx, vy;
+    private final float[] size;
+    private final float[] phase, phaseStep;
+    private final float[] spin;
+    private final int[] life, lifetime;
+    private final int[] color;
+    private final float[] brightness, previousBrightness;
+
+    // What prepare() settled for the next frame, and what the last frame showed
+    private final int[] shownX, shownY, shownSize, shownColor;
+    private int drawnX0, drawnY0, drawnX1, drawnY1;
+
+    ParticleSystem(int capacity, Color... colors) {
+        this.capacity = capacity;
+        mode = new byte[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        size = new float[capacity];
+        phase = new float[capacity];
+        phaseStep = new float[capacity];
+        spin = new float[capacity];
+        life = new int[capacity];
+        lifetime = new int[capacity];
+        color = new int[capacity];
+        brightness = new float[capacity];
+        previousBrightness = new float[capacity];
+        shownX = new int[capacity];
+        shownY = new int[capacity];
+        shownSize = new int[capacity];
+        shownColor = new int[capacity];
+
+        this.colors = colors.clone();
+        spriteScale = Viewport.getScale();
+        sprites = createSprites(this.colors, spriteScale);
+    }
+
+    private static BufferedImage[] createSprites(Color[] colors, double scale) {
+        int rows = colors.length * ALPHA_LEVELS;
+        // Cells are whole device pixels apart; each sprite is drawn in logical pixels inside its cell
+        int cell = (int) Math.ceil(MAX_SIZE * scale);
+        BufferedImage sheet = Layer.createImage(MAX_SIZE * cell, rows * cell, false);
+        BufferedImage[] sprites = new BufferedImage[rows * MAX_SIZE];
+        Graphics2D g2 = sheet.createGraphics();
+        for (int c = 0; c < colors.length; c++) {
+            Color base = colors[c];
+            for (int level = 0; level < ALPHA_LEVELS; level++) {
+                int row = c * ALPHA_LEVELS + level;
+                g2.setColor(new Color(base.getRed(), base.getGreen(), base.getBlue(), level * 255 / (ALPHA_LEVELS - 1)));
+                for (int s = 1; s <= MAX_SIZE; s++) {
+                    int sx = (s - 1) * cell, sy = row * cell;
+                    g2.setTransform(new AffineTransform(scale, 0, 0, scale, sx, sy));
+                    // Ovals are only worth it when there are enough pixels to look round
+                    if (s >= 3) {
+                        g2.fillOval(0, 0, s, s);
+                    } else {
+                        g2.fillRect(0, 0, s, s);
+                    }
+                    int device = Math.max(1, (int) Math.ceil(s * scale));
+                    sprites[row * MAX_SIZE + s - 1] = sheet.getSubimage(sx, sy, device, device);
+                }
+            }
+        }
+        g2.dispose();
+        return sprites;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Shows only the first limit particles from now on; the rest keep updating unseen. The
+     * caller redraws the screen, as the damage doesn't cover particles that disappear.
+     */
+    void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Adds a particle and returns its index, or -1 when the system is full.
+     * @param colorIndex index into the colors the system was built with
+     * @param ticks lifetime in ticks; ignored for stars
+     */
+    int spawn(byte kind, float px, float py, float pvx, float pvy, float psize, int colorIndex, int ticks) {
+        if (count == capacity) {
+            return -1;
+        }
+        int i = count++;
+        mode[i] = kind;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        size[i] = psize;
+        phase[i] = 0;
+        phaseStep[i] = 0;
+        spin[i] = 0;
+        life[i] = ticks;
+        lifetime[i] = Math.max(1, ticks);
+        color[i] = colorIndex;
+        brightness[i] = previousBrightness[i] = 1f;
+        shownColor[i] = -1;
+        return i;
+    }
+
+    /** Sets where in its pulse the particle starts and how far it moves along it per tick (phase units). */
+    void setPulse(int i, float startPhase, float step) {
+        phase[i] = startPhase;
+        phaseStep[i] = step;
+        if (mode[i] == STAR) {
+            brightness[i] = previousBrightness[i] = 0.5f + 0.5f * sin(startPhase);
+        }
+    }
+
+    /** Sets how far a spark's velocity turns per tick (phase units). */
+    void setSpin(int i, float turn) {
+        spin[i] = turn;
+    }
+
+    void update() {
+        for (int i = 0; i < count; i++) {
+            previousBrightness[i] = brightness[i];
+            phase[i] += phaseStep[i];
+            // Keep the phase small so float precision doesn't wear away in long sessions
+            if (phase[i] >= SINE_SIZE) {
+                phase[i] -= SINE_SIZE;
+            }
+            if (mode[i] == STAR) {
+                brightness[i] = 0.5f + 0.5f * sin(phase[i]);
+                continue;
+            }
+
+            if (--life[i] < 0) {
+                remove(i);
+                i--;
+                continue;
+            }
+            x[i] += vx[i];
+            y[i] += vy[i];
+            if (mode[i] == SPARK && spin[i] != 0) {
+                float s = sin(spin[i]), c = cos(spin[i]);
+                float nvx = vx[i] * c - vy[i] * s;
+                vy[i] = vx[i] * s + vy[i] * c;
+                vx[i] = nvx;
+            } else if (mode[i] == DEBRIS) {
+                vy[i] += GRAVITY;
+            }
+            brightness[i] = life[i] / (float) lifetime[i];
+        }
+    }
+
+    // Moves the last particle into the gap so the arrays stay packed
+    private void remove(int i) {
+        int last = --count;
+        mode[i] = mode[last];
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        size[i] = size[last];
+        phase[i] = phase[last];
+        phaseStep[i] = phaseStep[last];
+        spin[i] = spin[last];
+        life[i] = life[last];
+        lifetime[i] = lifetime[last];
+        color[i] = color[last];
+        brightness[i] = brightness[last];
+        previousBrightness[i] = previousBrightness[last];
+        shownColor[i] = shownColor[last];
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * Settles how every particle looks in the next frame, blending between the last two ticks,
+     * and adds what changed since the last frame to the damage: single stars whose color step
+     * changed, and the box around everything that moves.
+     */
+    void prepare(double alpha, DamageRegion damage) {
+        float a = (float) alpha;
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        for (int i = 0, n = Math.min(count, limit); i < n; i++) {
+            float shown = previousBrightness[i] + (brightness[i] - previousBrightness[i]) * a;
+            int level = Math.max(0, Math.min(ALPHA_LEVELS - 1, (int) (shown * (ALPHA_LEVELS - 1) + 0.5f)));
+            int newColor = color[i] * ALPHA_LEVELS + level;
+
+            if (mode[i] == STAR) {
+                shownSize[i] = Math.min(MAX_SIZE, (int) size[i]);
+                shownX[i] = (int) (x[i] - size[i] / 2);
+                shownY[i] = (int) (y[i] - size[i] / 2);
+                if (newColor != shownColor[i]) {
+                    damage.add(shownX[i], shownY[i], shownSize[i] + 2, shownSize[i] + 2);
+                    shownColor[i] = newColor;
+                }
+                continue;
+            }
+
+            float s = size[i];
+            if (mode[i] == SPARK) {
+                s += s * sin(phase[i] + phaseStep[i] * a);
+            }
+            // Draw where the particle is between the last tick and the next
+            float px = x[i] - vx[i] * (1 - a);
+            float py = y[i] - vy[i] * (1 - a);
+            shownColor[i] = newColor;
+            shownSize[i] = Math.min(MAX_SIZE, (int) s);
+            shownX[i] = (int) (px - s / 2);
+            shownY[i] = (int) (py - s / 2);
+            x0 = Math.min(x0, shownX[i]);
+            y0 = Math.min(y0, shownY[i]);
+            x1 = Math.max(x1, shownX[i] + shownSize[i] + 2);
+            y1 = Math.max(y1, shownY[i] + shownSize[i] + 2);
+        }
+
+        // Moving particles: clear where they were, draw where they are
+        damage.add(drawnX0, drawnY0, drawnX1 - drawnX0, drawnY1 - drawnY0);
+        if (x0 == Integer.MAX_VALUE) {
+            drawnX0 = drawnY0 = drawnX1 = drawnY1 = 0;
+        } else {
+            damage.add(x0, y0, x1 - x0, y1 - y0);
+            drawnX0 = x0;
+            drawnY0 = y0;
+            drawnX1 = x1;
+            drawnY1 = y1;
+        }
+    }
+
+    /** Draws the particles as last settled by {@link #prepare}. */
+    void draw(Graphics2D g2) {
+        refreshSprites();
+        for (int i = 0, n = Math.min(count, limit); i < n; i++) {
+            int s = shownSize[i];
+            if (isShown(i) && g2.hitClip(shownX[i], shownY[i], s + 1, s + 1)) {
+                Viewport.drawImage(g2, sprites[shownColor[i] * MAX_SIZE + s - 1], shownX[i], shownY[i]);
+            }
+        }
+    }
+
+    /** Draws the particles as last settled by {@link #prepare} into a software frame. */
+    void draw(PixelRenderer target) {
+        refreshSprites();
+        for (int i = 0, n = Math.min(count, limit); i < n; i++) {
+            int s = shownSize[i];
+            if (isShown(i) && target.hitClip(shownX[i], shownY[i], s + 1, s + 1)) {
+                target.blit(sprites[shownColor[i] * MAX_SIZE + s - 1], shownX[i], shownY[i], 0, 0, 255);
+            }
+        }
+    }
+
+    // Fully faded particles and ones too small to see aren't drawn
+    private boolean isShown(int i) {
+        int c = shownColor[i];
+        return c >= 0 && c % ALPHA_LEVELS != 0 && shownSize[i] > 0;
+    }
+
+    private void refreshSprites() {
+        if (spriteScale != Viewport.getScale()) {
+            spriteScale = Viewport.getScale();
+            sprites = createSprites(colors, spriteScale);
+        }
+    }
+}
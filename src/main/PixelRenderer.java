@@ -0,0 +1,297 @@
+package main;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import mino.Block;
+import mino.BlockTiles;
+import mino.Playfield;
+
+/**
+ * Software backend: composes the scene itself in an int[] frame (the DataBufferInt of a
+ * BufferedImage at the {@link Viewport} resolution) and puts it on screen with one blit.
+ * Fills, cells, sprites, glyphs and cached layers are written into the array with plain
+ * loops. The few shapes with no cached image (the level bar and the level up effect) are
+ * drawn through a Graphics2D on the same image, which Java2D then also renders in software.
+ * <p>
+ * Source images are read once into premultiplied int arrays and kept while the image
+ * lives. Their own pixels are only read, never taken with DataBufferInt.getData, so they
+ * stay accelerated for the Graphics2D backend.
+ */
+final class PixelRenderer implements Renderer {
+    static final String NAME = "pixels";
+
+    private static final Rectangle SCREEN = new Rectangle(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
+    // The line clear flash has always been drawn at 80%
+    private static final int FLASH_ALPHA = 204;
+
+    // Premultiplied ARGB copy of a source image
+    private static final class Pixels {
+        final int width, height;
+        final int[] argb;
+
+        Pixels(BufferedImage image) {
+            width = image.getWidth();
+            height = image.getHeight();
+            argb = new int[width * height];
+            switch (image.getType()) {
+                case BufferedImage.TYPE_INT_ARGB_PRE:
+                    image.getRaster().getDataElements(0, 0, width, height, argb);
+                    break;
+                case BufferedImage.TYPE_INT_RGB:
+                    image.getRaster().getDataElements(0, 0, width, height, argb);
+                    for (int i = 0; i < argb.length; i++) {
+                        argb[i] |= 0xFF000000;
+                    }
+                    break;
+                default:
+                    image.getRGB(0, 0, width, height, argb, 0, width);
+                    for (int i = 0; i < argb.length; i++) {
+                        argb[i] = premultiply(argb[i]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private final Map<BufferedImage, Pixels> sources = new WeakHashMap<>();
+
+    private BufferedImage frame;
+    private int[] pixels;
+    private int frameWidth, frameHeight;
+    private double scale;
+    // Java2D on the frame, in logical coordinates, for what isn't drawn by hand
+    private Graphics2D shapes;
+
+    // What is being drawn: in logical pixels, and in device pixels with exclusive ends
+    private final Rectangle clip = new Rectangle();
+    private int clipX0, clipY0, clipX1, clipY1;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void draw(Graphics2D g2, PlayScene scene) {
+        prepareFrame(g2);
+        if (clipX0 >= clipX1 || clipY0 >= clipY1) {
+            return;
+        }
+
+        fill(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT, scene.background.getRGB());
+        scene.stars.draw(this);
+        scene.chrome.draw(this, 0, 0);
+
+        if (hitClip(scene.statsPanel)) {
+            drawStats(scene);
+        }
+        if (hitClip(scene.holdPanel)) {
+            drawPiece(BlockTiles.PLAIN, scene.hold, scene.holdColor);
+        }
+
+        if (scene.showsPlayArea() && hitClip(scene.playColumn)) {
+            drawPiece(BlockTiles.GHOST, scene.ghost, scene.ghostColor);
+            drawPiece(BlockTiles.PLAIN, scene.current, scene.currentColor);
+            drawCells(scene);
+
+            if (scene.flashRows != 0) {
+                int flash = FLASH_ALPHA << 24 | (scene.flashColor.getRGB() & 0xFFFFFF);
+                for (int rows = scene.flashRows; rows != 0; rows &= rows - 1) {
+                    int row = Integer.numberOfTrailingZeros(rows);
+                    fill(scene.fieldX, scene.fieldY + row * Block.SIZE, PlayfieldRaster.WIDTH, Block.SIZE, flash);
+                }
+            }
+            if (scene.overlay != null) {
+                scene.overlay.draw(this, 0, 0);
+            }
+        }
+
+        if (scene.showsPlayArea() && hitClip(scene.nextPanel)) {
+            drawPiece(BlockTiles.PLAIN, scene.next, scene.nextColor);
+        }
+
+        scene.title.draw(this, 0, scene.titleOffset);
+
+        if (scene.levelUpFrame >= 0) {
+            // A handful of big blits and gradients; Java2D's software loops do them well
+            if (scene.levelUp != null) {
+                scene.levelUp.draw(shapes, scene.levelUpFrame, scene.levelUpGlow);
+            } else {
+                scene.liveLevelUp.paint(shapes);
+            }
+        }
+
+        scene.effects.draw(this);
+
+        Viewport.drawImage(g2, frame, 0, 0);
+    }
+
+    // Sizes the frame for the current scale and takes the clip of g2 as what is drawn
+    private void prepareFrame(Graphics2D g2) {
+        double s = Viewport.getScale();
+        if (frame == null || scale != s) {
+            if (shapes != null) {
+                shapes.dispose();
+            }
+            scale = s;
+            frameWidth = (int) Math.ceil(GamePanel.WIDTH * s);
+            frameHeight = (int) Math.ceil(GamePanel.HEIGHT * s);
+            frame = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+            shapes = frame.createGraphics();
+            shapes.scale(s, s);
+            // Even fills rasterize a little differently under it, so shapes match the other backend
+            shapes.setStroke(Graphics2DRenderer.PANEL_STROKE);
+        }
+        clip.setBounds(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
+        g2.getClipBounds(clip);
+        Rectangle.intersect(clip, SCREEN, clip);
+        shapes.setClip(clip.x, clip.y, clip.width, clip.height);
+        clipX0 = Math.max(0, (int) Math.floor(clip.x * s));
+        clipY0 = Math.max(0, (int) Math.floor(clip.y * s));
+        clipX1 = Math.min(frameWidth, (int) Math.ceil((clip.x + clip.width) * s));
+        clipY1 = Math.min(frameHeight, (int) Math.ceil((clip.y + clip.height) * s));
+    }
+
+    /** Whether a rectangle in logical pixels reaches into what is being drawn. */
+    boolean hitClip(int x, int y, int width, int height) {
+        return width > 0 && height > 0 && clip.intersects(x, y, width, height);
+    }
+
+    private boolean hitClip(Rectangle r) {
+        return hitClip(r.x, r.y, r.width, r.height);
+    }
+
+    private void drawPiece(int variant, int[] blocks, int colorId) {
+        if (colorId < 0) {
+            return;
+        }
+        BufferedImage tile = BlockTiles.tile(variant, colorId);
+        for (int i = 0; i < 4; i++) {
+            blit(tile, blocks[2 * i], blocks[2 * i + 1], 0, 0, 255);
+        }
+    }
+
+    // The locked cells straight from the scene, a tile each
+    private void drawCells(PlayScene scene) {
+        for (int row = 0; row < Playfield.ROWS; row++) {
+            int y = scene.fieldY + row * Block.SIZE;
+            if (!hitClip(scene.fieldX, y, PlayfieldRaster.WIDTH, Block.SIZE)) {
+                continue;
+            }
+            for (int col = 0; col < Playfield.COLS; col++) {
+                int color = scene.cells[row * Playfield.COLS + col];
+                if (color >= 0) {
+                    blit(BlockTiles.tile(BlockTiles.SOLID, color), scene.fieldX + col * Block.SIZE, y, 0, 0, 255);
+                }
+            }
+        }
+    }
+
+    private void drawStats(PlayScene scene) {
+        int x = scene.statsPanel.x + 30;
+        int y = scene.statsPanel.y + 80;
+
+        scene.valueDigits.draw(this, scene.level, x + 120, y, 255);
+        shapes.setColor(scene.levelColor);
+        shapes.fillRoundRect(x, y + 10, scene.levelBarWidth, 8, 5, 5);
+
+        y += 70;
+        scene.valueDigits.draw(this, scene.lines, x + 120, y, 255);
+
+        y += 70;
+        if (scene.scoreGlowAlpha > 0) {
+            scene.glowDigits.draw(this, scene.score, x + 121, y + 1, scene.scoreGlowAlpha);
+        }
+        scene.valueDigits.draw(this, scene.score, x + 120, y, 255);
+    }
+
+    /** Fills a rectangle in logical pixels with an ARGB color, blending it when translucent. */
+    void fill(int x, int y, int width, int height, int color) {
+        int x0 = Math.max(clipX0, toDevice(x)), x1 = Math.min(clipX1, toDevice(x + width));
+        int y0 = Math.max(clipY0, toDevice(y)), y1 = Math.min(clipY1, toDevice(y + height));
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        int argb = premultiply(color);
+        for (int py = y0; py < y1; py++) {
+            int row = py * frameWidth;
+            if (argb >>> 24 == 255) {
+                Arrays.fill(pixels, row + x0, row + x1, argb);
+                continue;
+            }
+            for (int px = row + x0; px < row + x1; px++) {
+                pixels[px] = over(argb, pixels[px]);
+            }
+        }
+    }
+
+    /**
+     * Blends an image rasterized at the current scale onto the frame, with its corner at
+     * logical (x, y) moved by (dx, dy) device pixels and faded by alpha (0-255).
+     */
+    void blit(BufferedImage image, int x, int y, int dx, int dy, int alpha) {
+        Pixels source = sources.get(image);
+        if (source == null) {
+            source = new Pixels(image);
+            sources.put(image, source);
+        }
+        int left = toDevice(x) + dx, top = toDevice(y) + dy;
+        int x0 = Math.max(clipX0, left), x1 = Math.min(clipX1, left + source.width);
+        int y0 = Math.max(clipY0, top), y1 = Math.min(clipY1, top + source.height);
+        int[] src = source.argb;
+        for (int py = y0; py < y1; py++) {
+            int s = (py - top) * source.width + (x0 - left);
+            int d = py * frameWidth + x0;
+            for (int end = d + (x1 - x0); d < end; d++, s++) {
+                int argb = src[s];
+                if (alpha < 255) {
+                    argb = fade(argb, alpha);
+                }
+                int a = argb >>> 24;
+                if (a == 255) {
+                    pixels[d] = argb;
+                } else if (a != 0) {
+                    pixels[d] = over(argb, pixels[d]);
+                }
+            }
+        }
+    }
+
+    private int toDevice(int logical) {
+        return scale == 1 ? logical : (int) Math.round(logical * scale);
+    }
+
+    private static int premultiply(int argb) {
+        int a = argb >>> 24;
+        if (a == 255) {
+            return argb;
+        }
+        return fade(argb | 0xFF000000, a);
+    }
+
+    // Every channel of a premultiplied color times alpha / 255, rounded
+    private static int fade(int argb, int alpha) {
+        int rb = (argb & 0xFF00FF) * alpha + 0x800080;
+        rb = ((rb + ((rb >>> 8) & 0xFF00FF)) >>> 8) & 0xFF00FF;
+        int ag = ((argb >>> 8) & 0xFF00FF) * alpha + 0x800080;
+        ag = ((ag + ((ag >>> 8) & 0xFF00FF)) >>> 8) & 0xFF00FF;
+        return (ag << 8) | rb;
+    }
+
+    // A premultiplied color over an opaque one; two channels at a time
+    private static int over(int src, int dst) {
+        int inverse = 255 - (src >>> 24);
+        int rb = (dst & 0xFF00FF) * inverse + 0x800080;
+        rb = ((rb + ((rb >>> 8) & 0xFF00FF)) >>> 8) & 0xFF00FF;
+        int g = (dst & 0x00FF00) * inverse + 0x008000;
+        g = ((g + ((g >>> 8) & 0x00FF00)) >>> 8) & 0x00FF00;
+        return 0xFF000000 | ((src & 0xFFFFFF) + rb + g);
+    }
+}
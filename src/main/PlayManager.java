@@ -1,5 +1,4 @@
 package main;
-import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Composite;
@@ -11,65 +10,64 @@ import java.awt.RadialGradientPaint;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import engine.GameEngine;
+import engine.ReplayRecorder;
 import mino.*;
 /**
- * Manages the core gameplay mechanics, rendering, and game state.
+ * Renders the game held by a {@link GameEngine} and turns its events into sounds and effects.
  * This version includes optimized animations for 60 FPS.
  */
 public class PlayManager {
     // Game State
-    public static GameState gameState = GameState.MENU;
+    GameState gameState = GameState.MENU;
+    
+    // Simulation
+    final GameEngine engine;
+    
+    // Replay recording, off unless a directory is set
+    private Path replayDirectory;
+    private ReplayRecorder recorder;
     
     // Play area
     final int WIDTH = 360;
     final int HEIGHT = 600;
-    public static int left_x;
-    public static int right_x;
-    public static int top_y;
-    public static int bottom_y;
+    final int left_x;
+    final int right_x;
+    final int top_y;
+    final int bottom_y;
     
-    // Mino
+    // Mino (display only, positioned from the engine state)
     public Mino currentMino;
-    int MINO_START_X;
-    int MINO_START_Y;
     public Mino nextMino;
-    public static int NEXTMINO_X;
-    public static int NEXTMINO_Y;
     public Mino holdMino;
-    public static int HOLDMINO_X;
-    public static int HOLDMINO_Y;
-    private boolean canHold = true;
-    public static ArrayList<Block> staticBlocks = new ArrayList<>();
-    
-    // Mino randomization
-    private ArrayList<Class<? extends Mino>> minoTypes;
-    private ArrayList<Mino> minoBag;
-    private Random random;
-    
-    // Drop speed - SIGNIFICANTLY REDUCED FOR EASIER GAMEPLAY
-    public static int dropInterval = 90; // Much slower initial speed (was 60)
-    private final int LINES_PER_LEVEL = 10; // Many more lines needed per level (was 10)
-    private final int SPEED_DECREASE_PER_LEVEL = 10; // Much smaller speed increase (was 10)
-    
-    // Game Over
-    boolean gameOver;
+    // Every spot a mino is shown in has its own pool, so no mino is built after startup
+    private final MinoPool currentMinos = new MinoPool();
+    private final MinoPool nextMinos = new MinoPool();
+    private final MinoPool holdMinos = new MinoPool();
+    private int syncedPieceVersion = -1;
     
     // Effects
     boolean effectCounterOn;
     int effectCounter;
     ArrayList<Integer> effectY = new ArrayList<>();
     
-    // Score
-    int level = 1;
-    int lines;
-    int score;
-    
     // Ghost Block
     private GhostMino ghostMino;
+    // What the ghost was last computed from; it is only recomputed when one of these changes
+    private int ghostPieceVersion = -1;
+    private int ghostFieldVersion = -1;
+    
+    // The locked cells, kept drawn offscreen and redrawn only when the playfield changes
+    private final PlayfieldRaster playfieldRaster;
     
     // Graphics variables
     private Color backgroundColor = new Color(10, 10, 35);  // Dark blue background
@@ -79,66 +77,144 @@ public class PlayManager {
     private Color panelBackground = new Color(20, 20, 50, 200);
     private Color panelBorder = new Color(100, 100, 240);
     private Color panelTitleColor = new Color(220, 220, 255);
-    private Font scoreFont = new Font("Arial", Font.BOLD, 24);
-    private Font valueFont = new Font("Arial", Font.BOLD, 30);
+    private Font scoreFont = Fonts.LABEL;
     private Color scoreLabelColor = new Color(180, 180, 255);
     private Color scoreValueColor = new Color(255, 255, 255);
-    private long startTime = System.currentTimeMillis();
+    private Color levelBarColor = new Color(50, 50, 100);
+    // The stats are drawn from digit atlases
+    private final DigitAtlas valueDigits = new DigitAtlas(Fonts.VALUE, scoreValueColor);
+    private final DigitAtlas glowDigits = new DigitAtlas(Fonts.VALUE, new Color(255, 255, 100));
+    private static final Color[] LEVEL_COLORS = {
+        new Color(255, 0, 0),
+        new Color(30, 144, 255),
+        new Color(50, 205, 50),
+        new Color(255, 165, 0),
+        new Color(255, 69, 0),
+        new Color(138, 43, 226),
+        new Color(220, 20, 60),
+        new Color(32, 178, 170),
+        new Color(255, 215, 0),
+        new Color(255, 20, 147)
+    };
     private int gameTime = 0;
+    /**
+     * Holds ambient motion still: the star pulse, the title bob and the score glow
+     * (--reduced-motion). Idle screens then don't change at all.
+     */
+    boolean reducedMotion;
+    // How much decoration is drawn; see setQuality
+    private Quality quality = Quality.FULL;
     
 
     private boolean showLevelUpEffect = false;
     private int levelUpEffectCounter = 0;
-    private final int LEVEL_UP_DURATION = 60; // Exactly 1 second at 60 FPS
+    private final int LEVEL_UP_DURATION = LevelUpAnimation.DURATION; // Exactly 1 second at 60 FPS
+    // Pre-rendered level up animations, by level: the current level's and the next one's
+    private final Map<Integer, Future<LevelUpAnimation>> levelUpAnimations = new ConcurrentHashMap<>();
+    private int preparedLevel = -1;
+    
+    // How far the loop is between the last tick and the next (0-1), for smoothing animations
+    volatile double renderAlpha = 1.0;
+    
+    // What the last frame showed, so collectDamage can tell what changed since
+    private GameState drawnState;
+    private int titleOffset;
+    private int drawnTitleOffset;
+    private float scoreGlow;
+    private int drawnGlowStep = -1;
+    private final int[] drawnCurrent = new int[8];
+    private final int[] drawnGhost = new int[8];
+    private final Color[] drawnCurrentColor = new Color[1];
+    private final Color[] drawnGhostColor = new Color[1];
+    private Mino drawnNext;
+    private Mino drawnHold;
+    private int drawnLevel = -1;
+    private int drawnLines = -1;
+    private int drawnScore = -1;
+    private boolean drawnLineEffect;
+    private boolean drawnLevelUpEffect;
+    
+    // What the next frame shows, settled by collectDamage, and what draws it
+    private final PlayScene scene = new PlayScene();
+    private Renderer renderer = new Graphics2DRenderer();
+    
+    // Static parts of the scene, painted once; titleLayer only floats up and down
+    private final Layer chromeLayer = new Layer(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT, false, this::paintChrome);
+    private final Layer titleLayer;
+    private final Layer gameOverLayer;
+    private final Layer pausedLayer;
     
     // Background stars
-    private ArrayList<BackgroundStar> stars = new ArrayList<>();
+    private static final int STAR_COUNT = 100;
+    private final ParticleSystem stars = new ParticleSystem(STAR_COUNT, new Color(200, 200, 255));
+    
+    // Level up sparkles and line clear debris, drawn over everything
+    private static final Color[] SPARKLE_COLORS = {
+        Color.WHITE,
+        new Color(255, 255, 100),
+        new Color(255, 100, 100),
+        new Color(100, 100, 255),
+        new Color(100, 255, 100)
+    };
+    private static final int SPARKLE_COUNT = 30;
+    private static final int DEBRIS_PER_CELL = 16;
+    private final ParticleSystem effects = new ParticleSystem(4096, effectColors());
+    private final Random effectRandom = new Random();
 
     public PlayManager() {
+        this(new GameEngine());
+    }
+
+    /** Shows the given engine, for example one driven by a replay. */
+    public PlayManager(GameEngine engine) {
+        this.engine = engine;
+        this.playfieldRaster = new PlayfieldRaster(engine.getPlayfield());
+
         // Set up play area coordinates
         left_x = (GamePanel.WIDTH - WIDTH) / 2;
         right_x = left_x + WIDTH;
         top_y = 50;                             
         bottom_y = top_y + HEIGHT;
-        
-        // Set up starting positions
-        MINO_START_X = left_x + (WIDTH / 2) - Block.SIZE; 
-        MINO_START_Y = top_y;                 
-        
-        // Initialize piece generation
-        random = new Random();
-        initializeMinoTypes();
-        minoBag = new ArrayList<>();
-        refillBag();
-        
-        // Create starting pieces - with proper initialization
-        currentMino = pickMino();
-        currentMino.reset();
-        currentMino.setXY(MINO_START_X, MINO_START_Y);
-        
-        // Get next mino ready
-        nextMino = pickMino();
-        nextMino.reset();
-        Point nextPos = getCenteredMinoPosition(right_x + 130, bottom_y - 200, nextMino, true);
-        NEXTMINO_X = nextPos.x;
-        NEXTMINO_Y = nextPos.y;
-        nextMino.setXY(NEXTMINO_X, NEXTMINO_Y);
-        
-        // Initialize hold position (will be set when mino is actually held)
-        Point holdPos = getCenteredMinoPosition(left_x - 270, bottom_y - 180, new Mino_Square(), false);
-        HOLDMINO_X = holdPos.x;
-        HOLDMINO_Y = holdPos.y;
-        
-        // Create ghost mino
-        ghostMino = new GhostMino(currentMino);
-        ghostMino.dropToBottom();
+        // Room for the title, its glow and subtitle, whatever the font's exact width
+        titleLayer = new Layer(0, titleY() - 60, GamePanel.WIDTH / 2, 90, false, this::paintTitle);
+        gameOverLayer = new Layer(left_x, top_y, WIDTH, HEIGHT, false,
+                g2 -> drawOverlayScreen(g2, "GAME OVER", Color.RED));
+        pausedLayer = new Layer(left_x, top_y, WIDTH, HEIGHT, false,
+                g2 -> drawOverlayScreen(g2, "PAUSED", Color.YELLOW));
+        
+        syncMinos();
+        
+        scene.background = backgroundColor;
+        scene.stars = stars;
+        scene.effects = effects;
+        scene.chrome = chromeLayer;
+        scene.statsPanel.setBounds(right_x + 100, top_y, GamePanel.WIDTH - (right_x + 100), 300);
+        scene.valueDigits = valueDigits;
+        scene.glowDigits = glowDigits;
+        scene.holdPanel.setBounds(left_x - 275, bottom_y - 200, 200, 200);
+        scene.nextPanel.setBounds(right_x + 100, bottom_y - 200, 200, 200);
+        // (a mino just spawned pokes out above the play area)
+        scene.playColumn.setBounds(left_x, 0, WIDTH, bottom_y);
+        scene.field = playfieldRaster;
+        scene.fieldX = left_x;
+        scene.fieldY = top_y;
+        scene.title = titleLayer;
+        scene.liveLevelUp = this::drawLevelUpEffect;
         
         // Create background stars
-        for (int i = 0; i < 100; i++) {
-            stars.add(new BackgroundStar());
+        for (int i = 0; i < STAR_COUNT; i++) {
+            float size = (float)(Math.random() * 3 + 1);
+            int star = stars.spawn(ParticleSystem.STAR, (float)(Math.random() * GamePanel.WIDTH),
+                    (float)(Math.random() * GamePanel.HEIGHT), 0, 0, size, 0, 0);
+            // Faster pulse for 60 FPS
+            float pulseSpeed = (float)(Math.random() * 0.1f + 0.02f);
+            stars.setPulse(star, ParticleSystem.phase(gameTime * pulseSpeed), ParticleSystem.phase(pulseSpeed));
         }
     }
 
+    // Filled in by getCenteredMinoPosition, reused so placing a mino allocates nothing
+    private final Point panelPosition = new Point();
+
     private Point getCenteredMinoPosition(int panelX, int panelY, Mino mino, boolean isNextPanel) {
         int panelWidth = 200;
         int panelHeight = 200;
@@ -160,109 +236,172 @@ public class PlayManager {
         int x = centerX - minoWidth / 2;
         int y = centerY - minoHeight / 2;
         
-        return new Point(x, y);
+        panelPosition.setLocation(x, y);
+        return panelPosition;
     }
 
-    private void initializeMinoTypes() {
-        minoTypes = new ArrayList<>();
-        minoTypes.add(Mino_L1.class);
-        minoTypes.add(Mino_L2.class);
-        minoTypes.add(Mino_Square.class);
-        minoTypes.add(Mino_Bar.class);
-        minoTypes.add(Mino_T.class);
-        minoTypes.add(Mino_Z1.class);
-        minoTypes.add(Mino_Z2.class);
+    private Mino placeInPanel(MinoPool pool, PieceShape shape, int panelX, int panelY, boolean isNextPanel) {
+        Mino mino = pool.get(shape);
+        mino.setXY(0, 0);
+        Point pos = getCenteredMinoPosition(panelX, panelY, mino, isNextPanel);
+        mino.setXY(pos.x, pos.y);
+        return mino;
     }
 
-    private void refillBag() {
-        ArrayList<Class<? extends Mino>> shuffled = new ArrayList<>(minoTypes);
-        Collections.shuffle(shuffled, random);
-        try {
-            for (Class<? extends Mino> minoClass : shuffled) {
-                minoBag.add(minoClass.getDeclaredConstructor().newInstance());
+    // Positions the display minos from the engine, only when the engine's mino changed
+    private void syncMinos() {
+        if (engine.getPieceVersion() != syncedPieceVersion) {
+            syncedPieceVersion = engine.getPieceVersion();
+            
+            currentMino = currentMinos.get(engine.getCurrent());
+            currentMino.setPosition(engine.getOrientation(),
+                    left_x + engine.getCol() * Block.SIZE, top_y + engine.getRow() * Block.SIZE);
+            
+            nextMino = placeInPanel(nextMinos, engine.getNext(), right_x + 100, bottom_y - 200, true);
+            
+            if (engine.getHold() == null) {
+                holdMino = null;
+            } else {
+                holdMino = placeInPanel(holdMinos, engine.getHold(), left_x - 270, bottom_y - 180, false);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
+        refreshGhost();
+    }
+    
+    private void refreshGhost() {
+        Playfield playfield = engine.getPlayfield();
+        if (ghostMino != null
+                && engine.getPieceVersion() == ghostPieceVersion
+                && playfield.getVersion() == ghostFieldVersion) {
+            return;
+        }
+        if (ghostMino == null) {
+            ghostMino = new GhostMino(currentMino);
+        }
+        ghostMino.updatePosition(currentMino, engine.getGhostRow() - engine.getRow());
+        ghostPieceVersion = engine.getPieceVersion();
+        ghostFieldVersion = playfield.getVersion();
     }
 
-    Mino pickMino() {
-        if (minoBag.isEmpty()) {
-            refillBag();
+    /**
+     * Advances one frame.
+     * @param input the {@link engine.Input} bits pressed this frame
+     */
+    public void update(int input) {
+        updateAnimations();
+        
+        if (gameState != GameState.PLAYING) return;
+        
+        engine.tick(input);
+        if (recorder != null) {
+            recorder.record(engine, input);
         }
-        return minoBag.remove(0);
+        handleEvents(engine.getEvents());
+        syncMinos();
+    }
+
+    /**
+     * Advances one frame of a game someone else ticks (a replay): shows the engine
+     * as it is now, without sounds or line clear effects for the ticks in between.
+     */
+    public void updateReplay() {
+        updateAnimations();
+        if ((engine.getEvents() & GameEngine.EVENT_LEVEL_UP) != 0) {
+            showLevelUpEffect = true;
+            levelUpEffectCounter = 0;
+        }
+        prepareLevelUp(engine.getLevel());
+        if (engine.isGameOver()) {
+            gameState = GameState.GAME_OVER;
+        } else if (gameState == GameState.GAME_OVER) {
+            // Seeking back from the end
+            gameState = GameState.PLAYING;
+        }
+        syncMinos();
     }
 
-    public void update() {
+    private void updateAnimations() {
         // Update the game time
         gameTime++;
         
-        // Update background stars
-        for (BackgroundStar star : stars) {
-            star.update();
-        }
-        
-        // Handle restart if game is over and ENTER is pressed
-        if (gameOver && KeyHandler.enterPressed) {
-            KeyHandler.enterPressed = false;
-            resetGame();
-            return;
+        // Update background stars and effect particles
+        if (!reducedMotion) {
+            stars.update();
         }
+        effects.update();
         
         // IMPORTANT: Update level up effect regardless of game state
         // This ensures the animation completes properly
         if (showLevelUpEffect) {
             levelUpEffectCounter++;
+            // The sparkles burst out a fifth of the way into the effect
+            if (levelUpEffectCounter == LEVEL_UP_DURATION / 5) {
+                emitSparkles();
+            }
             if (levelUpEffectCounter > LEVEL_UP_DURATION) {  // OPTIMIZED: 60 frames = 1 second at 60 FPS
                 showLevelUpEffect = false;
                 levelUpEffectCounter = 0;
             }
         }
         
-        if (gameState != GameState.PLAYING) return;
-        
-        // Handle special moves
-        if(KeyHandler.holdPressed && canHold) {
-            holdCurrentMino();
-            KeyHandler.holdPressed = false;
-        }
-        
-        if(KeyHandler.hardDropPressed) {
-            hardDrop();
-            KeyHandler.hardDropPressed = false;
-        }
-        
-        // Update ghost preview
-        if (currentMino != null) {
-            if (ghostMino == null) {
-                ghostMino = new GhostMino(currentMino);
+        // The line clear flash counts ticks, not frames, so it lasts as long at any frame rate
+        if (effectCounterOn) {
+            effectCounter++;
+            // Shorter effect duration for 60 FPS
+            if (effectCounter >= 12) {
+                effectCounterOn = false;
+                effectCounter = 0;
+                effectY.clear();
             }
-            ghostMino.updatePosition(currentMino);
-            ghostMino.dropToBottom();
-        }
-        
-        // Handle active/landed pieces
-        if (!currentMino.active) {
-            addToStaticBlocks();
-            checkGameOver();
-            spawnNewMino();
-            checkDelete();
-        } else {
-            currentMino.update();
         }
     }
 
-    private void addToStaticBlocks() {
-        for (int i = 0; i < 4; i++) {
-            staticBlocks.add(currentMino.b[i]);
-        }
-        currentMino.deactivating = false;
+    /**
+     * Sets how much decoration is drawn, for effects from now on. The whole screen has to be
+     * redrawn after a change, as stars that disappear aren't in the damage.
+     */
+    void setQuality(Quality quality) {
+        this.quality = quality;
+        stars.setLimit(quality.particles(STAR_COUNT));
     }
-   
-    private void checkGameOver() {
-        if (currentMino.b[0].x == MINO_START_X && currentMino.b[0].y == MINO_START_Y) {
-            gameOver = true;
-            gameState = GameState.GAME_OVER; // Add this if you have a GAME_OVER state
+
+    /**
+     * Whether an effect is playing: particles, the level up effect or the line clear flash.
+     * Ambient motion (stars, title, score glow) doesn't count.
+     */
+    boolean isAnimating() {
+        return effects.size() > 0 || showLevelUpEffect || effectCounterOn;
+    }
+
+    // Turns the engine's events of this tick into sounds and effects
+    private void handleEvents(int events) {
+        if ((events & GameEngine.EVENT_ROTATE) != 0) {
+            GamePanel.se.play(3, false);
+        }
+        if ((events & GameEngine.EVENT_TOUCH_FLOOR) != 0) {
+            GamePanel.se.play(4, false);
+        }
+        if ((events & GameEngine.EVENT_LINE_CLEAR) != 0) {
+            int cleared = engine.getClearedRows();
+            for (int row = 0; row < Playfield.ROWS; row++) {
+                if ((cleared & (1 << row)) != 0) {
+                    effectY.add(top_y + row * Block.SIZE);
+                    emitDebris(row);
+                }
+            }
+            effectCounterOn = true;
+            GamePanel.se.play(1, false);
+        }
+        if ((events & GameEngine.EVENT_LEVEL_UP) != 0) {
+            // ADD SOUND EFFECT FOR LEVEL UP
+            GamePanel.se.play(3, false);  // Use a different sound number for level up
+            showLevelUpEffect = true;
+            levelUpEffectCounter = 0;
+            prepareLevelUp(engine.getLevel());
+        }
+        if ((events & GameEngine.EVENT_GAME_OVER) != 0) {
+            gameState = GameState.GAME_OVER;
+            stopRecording();
             GamePanel.music.stop();
             GamePanel.se.play(2, false);
         }
@@ -270,198 +409,259 @@ public class PlayManager {
     
     public void resetGame() {
         // Reset game state
-        gameOver = false;
+        stopRecording();
+        engine.reset();
+        // Recording before playing, so no tick is played unrecorded
+        startRecording();
         gameState = GameState.PLAYING;
         
-        // Clear all blocks
-        staticBlocks.clear();
+        // Reset effects
+        effectCounterOn = false;
+        effectCounter = 0;
+        effectY.clear();
+        effects.clear();
+        prepareLevelUp(engine.getLevel());
         
-        // Reset game stats
-        level = 1;
-        lines = 0;
-        score = 0;
-        dropInterval = 90;
+        syncMinos();
+    }
+    
+    // Makes sure the animations for this level and the next are baked or being baked
+    private void prepareLevelUp(int level) {
+        if (level == preparedLevel) {
+            return;
+        }
+        preparedLevel = level;
+        levelUpAnimations.keySet().removeIf(l -> l < level || l > level + 1);
+        for (int l = level; l <= level + 1; l++) {
+            levelUpAnimations.computeIfAbsent(l, l2 -> LevelUpAnimation.bake(l2, getLevelColor(l2)));
+        }
+    }
+    
+    // The animation for a level if it has finished baking for the current scale, or null
+    private LevelUpAnimation readyLevelUp(int level) {
+        Future<LevelUpAnimation> animation = levelUpAnimations.get(level);
+        if (animation == null || !animation.isDone()) {
+            return null;
+        }
+        try {
+            LevelUpAnimation baked = animation.get();
+            if (baked.getScale() != Viewport.getScale()) {
+                // Baked for a screen size the window no longer has
+                levelUpAnimations.put(level, LevelUpAnimation.bake(level, getLevelColor(level)));
+                return null;
+            }
+            return baked;
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            levelUpAnimations.remove(level);
+            return null;
+        }
+    }
+    
+    /**
+     * Adds to the damage everything on screen that will look different in the next frame
+     * than in the last one, and settles the animated values that frame will show.
+     */
+    void collectDamage(DamageRegion damage) {
+        if (gameState != drawnState || showLevelUpEffect || drawnLevelUpEffect) {
+            damage.addAll();
+        }
+        drawnState = gameState;
+        drawnLevelUpEffect = showLevelUpEffect;
         
-        // Reset mino bag
-        minoBag.clear();
-        refillBag();
+        stars.prepare(renderAlpha, damage);
+        effects.prepare(renderAlpha, damage);
         
-        // Create new current mino
-        currentMino = pickMino();
-        currentMino.reset();
-        currentMino.setXY(MINO_START_X, MINO_START_Y);
+        // Counted in ticks, so it holds still while the game is paused
+        double time = gameTime / 60.0;
+        titleOffset = reducedMotion ? 0 : (int)(Math.sin(time * 3.0) * 2);
+        if (titleOffset != drawnTitleOffset) {
+            titleLayer.addDamage(damage, 0, drawnTitleOffset);
+            titleLayer.addDamage(damage, 0, titleOffset);
+            drawnTitleOffset = titleOffset;
+        }
         
-        // Create new next mino
-        nextMino = pickMino();
-        nextMino.reset();
-        Point nextPos = getCenteredMinoPosition(right_x + 130, bottom_y - 200, nextMino, true);
-        nextMino.setXY(nextPos.x, nextPos.y);
+        // Pieces: where they were and where they are now
+        if (gameState != GameState.MENU) {
+            damageMino(damage, currentMino == null ? null : currentMino.b, drawnCurrent, drawnCurrentColor);
+            damageMino(damage, ghostMino == null ? null : ghostMino.b, drawnGhost, drawnGhostColor);
+        }
+        if (nextMino != drawnNext) {
+            damage.add(right_x + 100, bottom_y - 200, 200, 200);
+            drawnNext = nextMino;
+        }
+        if (holdMino != drawnHold) {
+            damage.add(left_x - 275, bottom_y - 200, 200, 200);
+            drawnHold = holdMino;
+        }
         
-        // Reset hold
-        holdMino = null;
-        canHold = true;
+        int redrawnRows = playfieldRaster.refresh();
+        while (redrawnRows != 0) {
+            int row = Integer.numberOfTrailingZeros(redrawnRows);
+            redrawnRows &= redrawnRows - 1;
+            damage.add(left_x, top_y + row * Block.SIZE, WIDTH, Block.SIZE);
+        }
         
-        // Reset ghost
-        ghostMino = new GhostMino(currentMino);
-        ghostMino.dropToBottom();
+        if (effectCounterOn || drawnLineEffect) {
+            damage.add(left_x, top_y, WIDTH, HEIGHT);
+        }
+        drawnLineEffect = effectCounterOn;
         
-        // Restart music
-        GamePanel.music.play(0, true);
-    }
-
-    private void spawnNewMino() {
-        currentMino = nextMino;
-        currentMino.reset();   
-        currentMino.setXY(MINO_START_X, MINO_START_Y);
-   
-        nextMino = pickMino();
-        nextMino.reset();
-        Point nextPos = getCenteredMinoPosition(right_x + 100, bottom_y - 200, nextMino, true);
-        nextMino.setXY(nextPos.x, nextPos.y);
-        
-        canHold = true;
-        
-        if(checkCollision()) {
-            gameOver = true;
-            GamePanel.music.stop();
-            GamePanel.se.play(2, false);
+        // The stats panel; a score over 5000 pulses
+        int level = engine.getLevel(), lines = engine.getLines(), score = engine.getScore();
+        scoreGlow = reducedMotion ? 0.3f : (float)(0.3f + 0.1f * Math.sin(gameTime / 15.0));
+        int glowStep = score > 5000 && quality.glow ? (int)(scoreGlow * 255) : -1;
+        if (level != drawnLevel || lines != drawnLines || score != drawnScore || glowStep != drawnGlowStep) {
+            // (up to the screen's edge: a long score runs past the panel)
+            damage.add(scene.statsPanel.x, scene.statsPanel.y, scene.statsPanel.width, scene.statsPanel.height);
+            drawnLevel = level;
+            drawnLines = lines;
+            drawnScore = score;
+            drawnGlowStep = glowStep;
         }
         
-        ghostMino = new GhostMino(currentMino);
-        ghostMino.dropToBottom();
+        captureScene();
     }
     
-    private void holdCurrentMino() {
-        // If no mino is currently held
-        if(holdMino == null) {
-            holdMino = currentMino;
-            holdMino.reset();
-            Point holdPos = getCenteredMinoPosition(left_x - 270, bottom_y - 180, holdMino, false);
-            holdMino.setXY(holdPos.x, holdPos.y);
-            spawnNewMino();
+    // Copies what the next frame shows into the scene
+    private void captureScene() {
+        scene.state = gameState;
+        
+        scene.level = engine.getLevel();
+        scene.lines = engine.getLines();
+        scene.score = engine.getScore();
+        scene.levelColor = getLevelColor(scene.level);
+        scene.levelBarWidth = (int)(180 * ((scene.lines % 10) / 10f));
+        scene.scoreGlowAlpha = scene.score > 5000 && quality.glow ? (int)(scoreGlow * 255) : 0;
+        
+        scene.holdColor = capturePiece(holdMino == null ? null : holdMino.b, scene.hold);
+        scene.nextColor = capturePiece(nextMino == null ? null : nextMino.b, scene.next);
+        scene.ghostColor = capturePiece(ghostMino == null ? null : ghostMino.b, scene.ghost);
+        scene.currentColor = capturePiece(currentMino == null ? null : currentMino.b, scene.current);
+        
+        // Increase flash rate for 60 FPS (4 frames per flash instead of 2)
+        scene.flashColor = (effectCounter % 6 < 3) ? Color.red : Color.white;
+        scene.flashRows = 0;
+        if (effectCounterOn) {
+            for (int lineY : effectY) {
+                scene.flashRows |= 1 << ((lineY - top_y) / Block.SIZE);
+            }
         }
-        // If swapping with held mino
-        else {
-            Mino temp = currentMino;
-            currentMino = holdMino;
-            currentMino.reset();
-            currentMino.setXY(MINO_START_X, MINO_START_Y);
-            
-            holdMino = temp;
-            holdMino.reset();
-            Point holdPos = getCenteredMinoPosition(left_x - 270, bottom_y - 180, holdMino, false);
-            holdMino.setXY(holdPos.x, holdPos.y);
+        Playfield playfield = engine.getPlayfield();
+        if (playfield.getVersion() != scene.cellsVersion) {
+            for (int row = 0; row < Playfield.ROWS; row++) {
+                int bits = playfield.getRow(row);
+                for (int col = 0; col < Playfield.COLS; col++) {
+                    scene.cells[row * Playfield.COLS + col] = (bits & (1 << col)) != 0 ? playfield.getColor(col, row) : -1;
+                }
+            }
+            scene.cellsVersion = playfield.getVersion();
         }
+        scene.overlay = gameState == GameState.GAME_OVER ? gameOverLayer
+                : gameState == GameState.PAUSED ? pausedLayer : null;
+        
+        scene.titleOffset = titleOffset;
         
-        ghostMino = new GhostMino(currentMino);
-        ghostMino.dropToBottom();
-        canHold = false;
+        // Drawn live only while the pre-rendered frames are still being baked
+        scene.levelUpFrame = showLevelUpEffect ? levelUpEffectCounter : -1;
+        scene.levelUp = showLevelUpEffect ? readyLevelUp(engine.getLevel()) : null;
+        scene.levelUpGlow = quality.gradients;
     }
     
-    private boolean checkCollision() {
-        for(Block block : currentMino.b) {
-            if(block.y == MINO_START_Y) {
-                for(Block staticBlock : staticBlocks) {
-                    if(staticBlock.x == block.x && staticBlock.y == block.y) {
-                        return true;
-                    }
-                }
-            }
+    // Copies the corners of a piece's blocks and returns its color id, -1 when there is no piece
+    private static int capturePiece(Block[] blocks, int[] corners) {
+        if (blocks == null) {
+            return -1;
+        }
+        for (int i = 0; i < 4; i++) {
+            corners[2 * i] = blocks[i].x;
+            corners[2 * i + 1] = blocks[i].y;
         }
-        return false;
+        return blocks[0].colorId;
     }
     
-    public void hardDrop() {
-        if (ghostMino != null && ghostMino.b.length > 0) {
-            GamePanel.se.play(4, false);
-            
-            int dropDistance = ghostMino.b[0].y - currentMino.b[0].y;
-            
-            currentMino.y += dropDistance;
-            for(Block block : currentMino.b) {
-                block.y += dropDistance;
+    // Damages the old and the new bounds of four blocks when they moved or changed color
+    private void damageMino(DamageRegion damage, Block[] blocks, int[] drawn, Color[] drawnColor) {
+        Color color = blocks == null ? null : blocks[0].c;
+        boolean moved = color != drawnColor[0];
+        for (int i = 0; i < 4 && blocks != null && !moved; i++) {
+            moved = blocks[i].x != drawn[2 * i] || blocks[i].y != drawn[2 * i + 1];
+        }
+        if (!moved) {
+            return;
+        }
+        if (drawnColor[0] != null) {
+            damageBlocks(damage, drawn);
+        }
+        if (blocks != null) {
+            for (int i = 0; i < 4; i++) {
+                drawn[2 * i] = blocks[i].x;
+                drawn[2 * i + 1] = blocks[i].y;
             }
-            
-            currentMino.active = false;
-            update();
+            damageBlocks(damage, drawn);
         }
+        drawnColor[0] = color;
+    }
+    
+    private void damageBlocks(DamageRegion damage, int[] positions) {
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        for (int i = 0; i < 4; i++) {
+            x0 = Math.min(x0, positions[2 * i]);
+            y0 = Math.min(y0, positions[2 * i + 1]);
+            x1 = Math.max(x1, positions[2 * i] + Block.SIZE);
+            y1 = Math.max(y1, positions[2 * i + 1] + Block.SIZE);
+        }
+        damage.add(x0, y0, x1 - x0, y1 - y0);
+    }
+    
+    /** Draws the scene as the last {@link #collectDamage} settled it. */
+    public void draw(Graphics2D g2) {
+        renderer.draw(g2, scene);
+    }
+    
+    Renderer getRenderer() {
+        return renderer;
+    }
+    
+    void setRenderer(Renderer renderer) {
+        this.renderer = renderer;
     }
 
-    private void checkDelete() {
-        int x = left_x;
-        int y = top_y;
-        int blockCount = 0;
-        int lineCount = 0;
-        
-        while(x < right_x && y < bottom_y) {
-            for(int i = 0; i < staticBlocks.size(); i++) {
-                if(staticBlocks.get(i).x == x && staticBlocks.get(i).y == y) {
-                    blockCount++;
-                }
-            }
-            
-            x += Block.SIZE;
-            
-            if(x == right_x) {
-                if(blockCount == 12) {
-                    effectCounterOn = true;
-                    effectY.add(y);
-                    
-                    for(int i = staticBlocks.size()-1; i > -1; i--) {
-                        if(staticBlocks.get(i).y == y) {
-                            staticBlocks.remove(i);
-                        }
-                    }
-                    
-                    lineCount++;
-                    lines++;
-                    
-                    if(lines % LINES_PER_LEVEL == 0 && dropInterval >= 10) {
-                        level++;
-                        
-                        if(dropInterval > SPEED_DECREASE_PER_LEVEL * 2) {
-                            dropInterval -= SPEED_DECREASE_PER_LEVEL;
-                        }
-                        else {
-                            dropInterval -= 1;
-                        }
-                        
-                        // ADD SOUND EFFECT FOR LEVEL UP
-                        GamePanel.se.play(3, false);  // Use a different sound number for level up
-                        showLevelUpEffect = true;
-                        levelUpEffectCounter = 0;
-                    }
-                  
-                    for(int i = 0; i < staticBlocks.size(); i++) {
-                        if(staticBlocks.get(i).y < y) {
-                            staticBlocks.get(i).y += Block.SIZE;
-                        }
-                    }
-                }
-                
-                blockCount = 0;
-                x = left_x;
-                y += Block.SIZE;
-            }
+    /** Drops the cached static images so they are painted again, such as after a theme change. */
+    public void invalidateLayers() {
+        chromeLayer.invalidate();
+        titleLayer.invalidate();
+        gameOverLayer.invalidate();
+        pausedLayer.invalidate();
+    }
+
+    /** Records every following game into the directory, one replay file per game. */
+    public void setReplayDirectory(Path directory) {
+        replayDirectory = directory;
+    }
+    
+    private void startRecording() {
+        if (replayDirectory == null) {
+            return;
         }
-        
-        if(lineCount > 0) {
-            GamePanel.se.play(1, false);
-            int singleLineScore = 50 * level;
-            score += singleLineScore * lineCount;
+        Path file = replayDirectory.resolve("replay-" + System.currentTimeMillis() + ".ssr");
+        try {
+            recorder = new ReplayRecorder(file, engine.getSeed());
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
     
-    public void draw(Graphics2D g2) {
-        // Draw background
-        g2.setColor(backgroundColor);
-        g2.fillRect(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
-        
-        // Draw background stars
-        for (BackgroundStar star : stars) {
-            star.draw(g2);
+    private void stopRecording() {
+        if (recorder != null) {
+            recorder.finish(engine.getTick());
+            recorder = null;
         }
-        
+    }
+
+    // Paints everything in the scene that never changes, for chromeLayer
+    private void paintChrome(Graphics2D g2) {
         // Draw play area background
         g2.setColor(playAreaBackground);
         g2.fillRect(left_x - 4, top_y - 4, WIDTH + 8, HEIGHT + 8);
@@ -495,70 +695,7 @@ public class PlayManager {
         
         // Draw score panel
         drawPanel(g2, right_x + 100, top_y, 250, 300, "STATS");
-        drawScoreInfo(g2, right_x + 100, top_y);
-        
-        // Draw hold mino if it exists
-        if(holdMino != null) {
-            holdMino.draw(g2);
-        }
-
-        if (gameState != GameState.MENU) {
-            // Draw ghost mino first (behind everything)
-            if (ghostMino != null) {
-                ghostMino.draw(g2);
-            }
-
-            // Draw current mino
-            if (currentMino != null) {
-                currentMino.draw(g2);
-            }
-
-            // Draw next mino
-            nextMino.draw(g2);
-
-            // Draw static blocks
-            for (Block block : staticBlocks) {
-                block.draw(g2);
-            }
-
-            // Draw line clear effects - optimized for 60 FPS
-            if (effectCounterOn) {
-                effectCounter++;
-                // Increase flash rate for 60 FPS (4 frames per flash instead of 2)
-                Color flashColor = (effectCounter % 6 < 3) ? Color.red : Color.white;
-                g2.setColor(flashColor);
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.8f));
-                for (int lineY : effectY) {
-                    g2.fillRect(left_x, lineY, WIDTH, Block.SIZE);
-                }
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
-
-                // Shorter effect duration for 60 FPS
-                if (effectCounter >= 12) {
-                    effectCounterOn = false;
-                    effectCounter = 0;
-                    effectY.clear();
-                }
-            }
-
-            // Draw game over screen
-            if (gameOver) {
-                drawOverlayScreen(g2, "GAME OVER", Color.RED);
-            } 
-            // Draw pause screen
-            else if (gameState == GameState.PAUSED) {
-                drawOverlayScreen(g2, "PAUSED", Color.YELLOW);
-            }
-        }
-
-        // Draw title
-        drawTitle(g2);
-        
-        // Draw level up effect (on top of everything)
-        // IMPORTANT: This is drawn regardless of game state
-        if (showLevelUpEffect) {
-            drawLevelUpEffect(g2);
-        }
+        drawScoreLabels(g2, right_x + 100, top_y);
     }
 
     private void drawPanel(Graphics2D g2, int x, int y, int width, int height, String title) {
@@ -577,95 +714,63 @@ public class PlayManager {
         
         // Draw panel title
         if (title != null) {
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
+            g2.setFont(Fonts.PANEL_TITLE);
             g2.setColor(panelTitleColor);
             int titleWidth = g2.getFontMetrics().stringWidth(title);
             g2.drawString(title, x + (width - titleWidth)/2, y + 35);
         }
     }
 
-    private void drawScoreInfo(Graphics2D g2, int x, int y) {
-        int padding = 30;
-        x += padding;
+    // The labels and the empty level bar of the stats panel, for chromeLayer
+    private void drawScoreLabels(Graphics2D g2, int x, int y) {
+        x += 30;
         y += 80;
-        
-        // Draw level with colored indicator
         g2.setFont(scoreFont);
         g2.setColor(scoreLabelColor);
         g2.drawString("LEVEL", x, y);
+        g2.drawString("LINES", x, y + 70);
+        g2.drawString("SCORE", x, y + 140);
         
-        g2.setFont(valueFont);
-        g2.setColor(scoreValueColor);
-        String levelStr = String.valueOf(level);
-        g2.drawString(levelStr, x + 120, y);
-        
-        // Draw level indicator bar
-        int barWidth = 180;
-        int barHeight = 8;
-        g2.setColor(new Color(50, 50, 100));
-        g2.fillRoundRect(x, y + 10, barWidth, barHeight, 5, 5);
-        
-        float levelProgress = (lines % 10) / 10f;
-        int progressWidth = (int)(barWidth * levelProgress);
-        g2.setColor(getLevelColor(level));
-        g2.fillRoundRect(x, y + 10, progressWidth, barHeight, 5, 5);
-        
-        y += 70;
-        
-        // Draw lines cleared
-        g2.setFont(scoreFont);
-        g2.setColor(scoreLabelColor);
-        g2.drawString("LINES", x, y);
-        
-        g2.setFont(valueFont);
-        g2.setColor(scoreValueColor);
-        String linesStr = String.valueOf(lines);
-        g2.drawString(linesStr, x + 120, y);
-        
-        y += 70;
-        
-        // Draw score with animated glow for high scores - optimized for 60 FPS
-        g2.setFont(scoreFont);
-        g2.setColor(scoreLabelColor);
-        g2.drawString("SCORE", x, y);
-        
-        if (score > 5000) {
-            // Increase frequency for 60 FPS
-            float alpha = (float)(0.3f + 0.1f * Math.sin(System.currentTimeMillis() / 250.0));
-            g2.setColor(new Color(255, 255, 100, (int)(alpha * 255)));
-            g2.setFont(valueFont);
-            g2.drawString(String.valueOf(score), x + 121, y + 1);
-        }
-        
-        g2.setFont(valueFont);
-        g2.setColor(scoreValueColor);
-        String scoreStr = String.valueOf(score);
-        g2.drawString(scoreStr, x + 120, y);
-    }
-     
-    private class BackgroundStar {
-        float x, y;
-        float size;
-        float brightness;
-        float pulseSpeed;
-        
-        public BackgroundStar() {
-            x = (float)(Math.random() * GamePanel.WIDTH);
-            y = (float)(Math.random() * GamePanel.HEIGHT);
-            size = (float)(Math.random() * 3 + 1);
-            brightness = (float)(Math.random() * 0.5f + 0.5f);
-            // Faster pulse for 60 FPS
-            pulseSpeed = (float)(Math.random() * 0.1f + 0.02f);
-        }
-        
-        public void update() {
-            brightness = (float)(0.5f + 0.5f * Math.sin(gameTime * pulseSpeed));
+        g2.setColor(levelBarColor);
+        g2.fillRoundRect(x, y + 10, 180, 8, 5, 5);
+    }
+
+    private static Color[] effectColors() {
+        Color[] colors = new Color[SPARKLE_COLORS.length + Block.PALETTE.length];
+        System.arraycopy(SPARKLE_COLORS, 0, colors, 0, SPARKLE_COLORS.length);
+        System.arraycopy(Block.PALETTE, 0, colors, SPARKLE_COLORS.length, Block.PALETTE.length);
+        return colors;
+    }
+    
+    // A ring of sparkles swirling out from the middle of the screen over the rest of the effect
+    private void emitSparkles() {
+        int ticks = LEVEL_UP_DURATION * 3 / 5;
+        float speed = GamePanel.WIDTH / 3f / ticks;
+        int count = quality.particles(SPARKLE_COUNT);
+        for (int i = 0; i < count; i++) {
+            double angle = Math.PI * 2 * i / count;
+            int p = effects.spawn(ParticleSystem.SPARK, GamePanel.WIDTH / 2f, GamePanel.HEIGHT / 2f,
+                    (float)(Math.cos(angle) * speed), (float)(Math.sin(angle) * speed),
+                    4f, i % SPARKLE_COLORS.length, ticks);
+            if (p < 0) {
+                return;
+            }
+            effects.setPulse(p, ParticleSystem.phase(i * 0.1 * Math.PI * 6), ParticleSystem.phase(Math.PI * 6 / ticks));
+            effects.setSpin(p, ParticleSystem.phase(0.02));
         }
-        
-        public void draw(Graphics2D g2) {
-            int alpha = (int)(brightness * 255);
-            g2.setColor(new Color(200, 200, 255, alpha));
-            g2.fillOval((int)(x - size/2), (int)(y - size/2), (int)size, (int)size);
+    }
+    
+    // Debris falling out of every cell of a cleared row
+    private void emitDebris(int row) {
+        float y = top_y + row * Block.SIZE + Block.SIZE / 2f;
+        for (int col = 0; col < Playfield.COLS; col++) {
+            float x = left_x + col * Block.SIZE + Block.SIZE / 2f;
+            for (int i = 0, n = quality.particles(DEBRIS_PER_CELL); i < n; i++) {
+                int color = SPARKLE_COLORS.length + effectRandom.nextInt(Block.PALETTE.length);
+                effects.spawn(ParticleSystem.DEBRIS, x, y,
+                        effectRandom.nextFloat() * 6f - 3f, -effectRandom.nextFloat() * 6f,
+                        2f + effectRandom.nextFloat() * 2f, color, 30 + effectRandom.nextInt(30));
+            }
         }
     }
     
@@ -673,7 +778,7 @@ public class PlayManager {
         g2.setColor(new Color(0, 0, 0, 180));
         g2.fillRect(left_x, top_y, WIDTH, HEIGHT);
         
-        Font messageFont = new Font("Impact", Font.BOLD, 50);
+        Font messageFont = Fonts.OVERLAY;
         g2.setFont(messageFont);
         
         int textWidth = g2.getFontMetrics(messageFont).stringWidth(message);
@@ -691,7 +796,7 @@ public class PlayManager {
         g2.setColor(textColor);
         g2.drawString(message, textX, textY);
         
-        g2.setFont(new Font("Arial", Font.PLAIN, 20));
+        g2.setFont(Fonts.HINT);
         g2.setColor(Color.WHITE);
         
         String instruction = message.equals("GAME OVER") ? 
@@ -704,42 +809,45 @@ public class PlayManager {
         g2.drawString(instruction, instructionX, textY + 60);
     }
     
-    private void drawTitle(Graphics2D g2) {
-        int titleX = left_x - 275 + 90;
-        int titleY = top_y + 300;
-        int titleFontSize = 50;
-        
-        // Optimized animation speed for 60 FPS
-        double time = (System.currentTimeMillis() - startTime) / 1000.0;
-        int offsetY = (int)(Math.sin(time * 3.0) * 2);
-        
+    // Paints the title at rest, for titleLayer
+    private void paintTitle(Graphics2D g2) {
+        int titleX = titleX();
+        int titleY = titleY();
         String titleText = "SWING & STACK";
         
-        g2.setFont(new Font("Impact", Font.BOLD, titleFontSize));
+        g2.setFont(Fonts.TITLE);
         int textWidth = g2.getFontMetrics().stringWidth(titleText);
         
         // Simplified glow effect for 60 FPS
         for (int i = 3; i > 0; i--) {
             float alpha = i / 10f;
             g2.setColor(new Color(100, 200, 255, (int)(alpha * 50)));
-            g2.drawString(titleText, titleX - textWidth/2 - i/2, titleY + offsetY + i/2);
+            g2.drawString(titleText, titleX - textWidth/2 - i/2, titleY + i/2);
         }
         
         g2.setColor(new Color(0, 0, 0, 120));
-        g2.drawString(titleText, titleX - textWidth/2 + 1, titleY + offsetY + 1);
+        g2.drawString(titleText, titleX - textWidth/2 + 1, titleY + 1);
         
         GradientPaint gradient = new GradientPaint(
             titleX - textWidth/2, titleY - 15, new Color(255, 50, 50),
             titleX + textWidth/2, titleY + 15, new Color(255, 150, 50)
         );
         g2.setPaint(gradient);
-        g2.drawString(titleText, titleX - textWidth/2, titleY + offsetY);
+        g2.drawString(titleText, titleX - textWidth/2, titleY);
         
         g2.setColor(new Color(180, 220, 255));
-        g2.setFont(new Font("Arial", Font.ITALIC, 15));
+        g2.setFont(Fonts.SUBTITLE);
         String subtitle = "The Classic Block Game";
         int subtitleWidth = g2.getFontMetrics().stringWidth(subtitle);
-        g2.drawString(subtitle, titleX - subtitleWidth/2, titleY + offsetY + 20);
+        g2.drawString(subtitle, titleX - subtitleWidth/2, titleY + 20);
+    }
+    
+    private int titleX() {
+        return left_x - 275 + 90;
+    }
+    
+    private int titleY() {
+        return top_y + 300;
     }
     
     /**
@@ -761,9 +869,10 @@ public class PlayManager {
             int centerY = GamePanel.HEIGHT / 2;
             
             // Flash effect - optimized timing for 60fps
-            if (progress < 0.3f) {
+            if (progress < 0.3f && quality.gradients) {
                 // Faster flash cycle (3 cycles in 0.3 seconds)
-                float flashIntensity = (float)Math.sin(progress * Math.PI * 10) * 0.7f;
+                // (abs: a negative sine would be an illegal alpha)
+                float flashIntensity = (float)Math.abs(Math.sin(progress * Math.PI * 10)) * 0.7f;
                 g2.setColor(new Color(1f, 1f, 0.8f, flashIntensity * 0.7f));
                 g2.fillRect(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
             }
@@ -773,29 +882,31 @@ public class PlayManager {
             float circleSize = progress < 0.5f ? progress * 2 : (1 - progress) * 2;
             float circleRadius = GamePanel.WIDTH * 0.3f * circleSize; // Slightly smaller for performance
             
-            // Radial gradient
-            Point2D center = new Point2D.Float(centerX, centerY);
-            float[] dist = {0.0f, 0.7f, 1.0f};
-            Color[] colors = {
-                new Color(255, 255, 0, (int)(220 * pulse * (1 - progress))),
-                new Color(255, 150, 0, (int)(180 * pulse * (1 - progress))),
-                new Color(255, 50, 0, 0)
-            };
-            
-            RadialGradientPaint gradient = new RadialGradientPaint(
-                center, circleRadius, dist, colors
-            );
-            
-            g2.setPaint(gradient);
-            g2.fillOval(
-                (int)(centerX - circleRadius), 
-                (int)(centerY - circleRadius), 
-                (int)(circleRadius * 2), 
-                (int)(circleRadius * 2)
-            );
+            // Radial gradient; it has no size on the first and last frame
+            if (circleRadius >= 1f && quality.gradients) {
+                Point2D center = new Point2D.Float(centerX, centerY);
+                float[] dist = {0.0f, 0.7f, 1.0f};
+                Color[] colors = {
+                    new Color(255, 255, 0, (int)(220 * pulse * (1 - progress))),
+                    new Color(255, 150, 0, (int)(180 * pulse * (1 - progress))),
+                    new Color(255, 50, 0, 0)
+                };
+                
+                RadialGradientPaint gradient = new RadialGradientPaint(
+                    center, circleRadius, dist, colors
+                );
+                
+                g2.setPaint(gradient);
+                g2.fillOval(
+                    (int)(centerX - circleRadius), 
+                    (int)(centerY - circleRadius), 
+                    (int)(circleRadius * 2), 
+                    (int)(circleRadius * 2)
+                );
+            }
             
             // "LEVEL UP!" text - simplified shadow for performance
-            g2.setFont(new Font("Impact", Font.BOLD, 60));
+            g2.setFont(Fonts.LEVEL_UP);
             String levelUpText = "LEVEL UP!";
             int textWidth = g2.getFontMetrics().stringWidth(levelUpText);
             
@@ -814,7 +925,8 @@ public class PlayManager {
             g2.drawString(levelUpText, centerX - textWidth/2, centerY);
             
             // Level number display
-            g2.setFont(new Font("Impact", Font.BOLD, 80));
+            g2.setFont(Fonts.LEVEL_NUMBER);
+            int level = engine.getLevel();
             String levelText = "LEVEL " + level;
             int levelTextWidth = g2.getFontMetrics().stringWidth(levelText);
             
@@ -850,47 +962,6 @@ public class PlayManager {
             );
             g2.setPaint(levelGradient);
             g2.drawString(levelText, centerX - levelTextWidth/2, centerY + 90);
-            
-            // Sparkles - optimized for performance
-            if (progress > 0.2f && progress < 0.8f) {
-                float sparkleProgress = (progress - 0.2f) / 0.6f;
-                int sparkleCount = 30; // Reduced from 50 for better performance
-                
-                for (int i = 0; i < sparkleCount; i++) {
-                    float angle = (float)(Math.PI * 2 * i / sparkleCount) + (progress * 6); // Faster rotation
-                    float distance = GamePanel.WIDTH/3f * sparkleProgress;
-                    int x = (int)(centerX + Math.cos(angle) * distance);
-                    int y = (int)(centerY + Math.sin(angle) * distance);
-                    
-                    float sparkleSize = 4f + 4f * (float)Math.sin((sparkleProgress + i * 0.1f) * Math.PI * 6);
-                    
-                    // Simplified color calculation - using pre-defined colors in a cycle
-                    Color[] sparkleColors = {
-                        Color.WHITE, 
-                        new Color(255, 255, 100), 
-                        new Color(255, 100, 100), 
-                        new Color(100, 100, 255),
-                        new Color(100, 255, 100)
-                    };
-                    
-                    Color sparkleColor = sparkleColors[i % sparkleColors.length];
-                    
-                    float sparkleAlpha = 1.0f - sparkleProgress;
-                    g2.setColor(new Color(
-                        sparkleColor.getRed(),
-                        sparkleColor.getGreen(),
-                        sparkleColor.getBlue(),
-                        (int)(sparkleAlpha * 255)
-                    ));
-                    
-                    g2.fillOval(
-                        (int)(x - sparkleSize/2), 
-                        (int)(y - sparkleSize/2), 
-                        (int)sparkleSize, 
-                        (int)sparkleSize
-                    );
-                }
-            }
         } finally {
             // Restore original graphics state
             g2.setTransform(originalTransform);
@@ -901,18 +972,6 @@ public class PlayManager {
     }
     
     private Color getLevelColor(int level) {
-        switch (level % 10) {
-            case 1: return new Color(30, 144, 255);
-            case 2: return new Color(50, 205, 50);
-            case 3: return new Color(255, 165, 0);
-            case 4: return new Color(255, 69, 0);
-            case 5: return new Color(138, 43, 226);
-            case 6: return new Color(220, 20, 60);
-            case 7: return new Color(32, 178, 170);
-            case 8: return new Color(255, 215, 0);
-            case 9: return new Color(255, 20, 147);
-            case 0: return new Color(255, 0, 0);
-            default: return new Color(30, 144, 255);
-        }
+        return LEVEL_COLORS[level % 10];
     }
 }
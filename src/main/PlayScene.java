@@ -0,0 +1,72 @@
+package main;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+
+import mino.Playfield;
+
+/**
+ * What one frame of the play scene shows: a snapshot the {@link PlayManager} settles before
+ * the frame (in {@link PlayManager#collectDamage}) and a {@link Renderer} only reads.
+ * Numbers and positions are copied; the cached art (layers, digit atlases, particle systems,
+ * the playfield raster) is shared and referenced as is, settled for the same frame.
+ * Positions are in logical pixels.
+ */
+final class PlayScene {
+    GameState state;
+    Color background;
+
+    // Particles as settled by their prepare(), stars behind everything and effects in front
+    ParticleSystem stars;
+    ParticleSystem effects;
+
+    // Everything that never changes: play area, grid, panels and labels
+    Layer chrome;
+
+    // The stats panel and its values
+    final Rectangle statsPanel = new Rectangle();
+    int level, lines, score;
+    Color levelColor;
+    int levelBarWidth;
+    // 0-255; 0 when the score doesn't glow
+    int scoreGlowAlpha;
+    DigitAtlas valueDigits;
+    DigitAtlas glowDigits;
+
+    // Pieces as the corners of their four blocks (x, y pairs) and a Block.PALETTE color id,
+    // -1 when not shown. The play area ones are only shown outside the menu.
+    final Rectangle holdPanel = new Rectangle();
+    final Rectangle nextPanel = new Rectangle();
+    final int[] hold = new int[8];
+    final int[] next = new int[8];
+    final int[] ghost = new int[8];
+    final int[] current = new int[8];
+    int holdColor = -1, nextColor = -1, ghostColor = -1, currentColor = -1;
+
+    // The play area: its column of the screen (a new piece pokes out above the playfield),
+    // the locked cells and the line clear flash over cleared rows (a bitmask, 0 for none)
+    final Rectangle playColumn = new Rectangle();
+    PlayfieldRaster field;
+    int fieldX, fieldY;
+    // Block.PALETTE color id of every cell by row, -1 when empty, and the playfield version it shows
+    final byte[] cells = new byte[Playfield.ROWS * Playfield.COLS];
+    int cellsVersion = -1;
+    int flashRows;
+    Color flashColor;
+    // Game over or paused, null otherwise
+    Layer overlay;
+
+    Layer title;
+    int titleOffset;
+
+    // The level up frame, -1 when none; drawn from the baked animation, or live while it is baking
+    int levelUpFrame = -1;
+    LevelUpAnimation levelUp;
+    Layer.Painter liveLevelUp;
+    // Whether the baked animation flashes and glows or only shows its text
+    boolean levelUpGlow = true;
+
+    boolean showsPlayArea() {
+        return state != GameState.MENU;
+    }
+}
@@ -0,0 +1,107 @@
+package main;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import mino.Block;
+import mino.Playfield;
+
+/**
+ * The locked cells of a Playfield, kept drawn in an offscreen image.
+ * The image is brought up to date only when the playfield's version changes, and then only
+ * the rows that differ from what was drawn are redrawn, so a frame costs one blit however
+ * full the stack is. The image is kept at the {@link Viewport} resolution and drawn again
+ * from scratch when that changes.
+ */
+class PlayfieldRaster {
+    private static final BasicStroke OUTLINE_STROKE = new BasicStroke(2f);
+
+    private final Playfield playfield;
+    static final int WIDTH = Playfield.COLS * Block.SIZE;
+    static final int HEIGHT = Playfield.ROWS * Block.SIZE;
+
+    private BufferedImage image;
+    private double imageScale;
+    private final Block cellBlock = new Block(0);
+
+    // What the image currently shows
+    private final int[] drawnRows = new int[Playfield.ROWS];
+    private final byte[] drawnColors = new byte[Playfield.ROWS * Playfield.COLS];
+    private int drawnVersion = -1;
+
+    PlayfieldRaster(Playfield playfield) {
+        this.playfield = playfield;
+    }
+
+    void draw(Graphics2D g2, int x, int y) {
+        refresh();
+        Viewport.drawImage(g2, image, x, y);
+    }
+
+    /**
+     * Brings the image up to date with the playfield.
+     * Returns a bitmask of the rows that were redrawn, 0 when nothing changed.
+     */
+    int refresh() {
+        double scale = Viewport.getScale();
+        if (image == null || imageScale != scale) {
+            image = Viewport.createImage(WIDTH, HEIGHT, false);
+            imageScale = scale;
+            // Nothing is drawn yet, so every row differs
+            Arrays.fill(drawnRows, -1);
+            drawnVersion = -1;
+        }
+        if (playfield.getVersion() == drawnVersion) {
+            return 0;
+        }
+        int redrawn = 0;
+        Graphics2D g2 = image.createGraphics();
+        g2.scale(scale, scale);
+        g2.setStroke(OUTLINE_STROKE);
+        Composite over = g2.getComposite();
+        for (int row = 0; row < Playfield.ROWS; row++) {
+            if (!rowChanged(row)) {
+                continue;
+            }
+            redrawn |= 1 << row;
+            // Clear the row back to transparent, then draw its cells again
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, row * Block.SIZE, WIDTH, Block.SIZE);
+            g2.setComposite(over);
+
+            int bits = playfield.getRow(row);
+            drawnRows[row] = bits;
+            while (bits != 0) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                byte color = playfield.getColor(col, row);
+                drawnColors[row * Playfield.COLS + col] = color;
+                cellBlock.setColorId(color);
+                cellBlock.setXY(col * Block.SIZE, row * Block.SIZE);
+                cellBlock.draw(g2);
+            }
+        }
+        g2.dispose();
+        drawnVersion = playfield.getVersion();
+        return redrawn;
+    }
+
+    private boolean rowChanged(int row) {
+        int bits = playfield.getRow(row);
+        if (bits != drawnRows[row]) {
+            return true;
+        }
+        while (bits != 0) {
+            int col = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            if (playfield.getColor(col, row) != drawnColors[row * Playfield.COLS + col]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
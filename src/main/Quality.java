@@ -0,0 +1,41 @@
+package main;
+
+/**
+ * How much decoration is drawn, from everything down to the bare game. Each tier drops what
+ * costs the most per frame for what it adds; {@link QualityGovernor} steps through them when
+ * frames take too long. The grid and panels aren't tiered: they are one cached blit either way.
+ */
+public enum Quality {
+    FULL(100, true, true),      // Everything
+    REDUCED(50, false, true),   // Half the stars and particles, no score glow
+    LOW(25, false, false),      // A quarter, and no full-screen flash, level up glow or shaded buttons
+    MINIMAL(0, false, false);   // No stars or particles at all
+
+    /** Share of the stars shown and of the particles spawned, in percent. */
+    final int particlePercent;
+    /** Whether a high score glows. */
+    final boolean glow;
+    /** Whether the level up effect flashes and glows and the menu buttons are shaded. */
+    final boolean gradients;
+
+    Quality(int particlePercent, boolean glow, boolean gradients) {
+        this.particlePercent = particlePercent;
+        this.glow = glow;
+        this.gradients = gradients;
+    }
+
+    /** How many of full particles to use at this tier. */
+    int particles(int full) {
+        return full * particlePercent / 100;
+    }
+
+    /** The tier with the given name in any case, or null when there is none. */
+    static Quality forName(String name) {
+        for (Quality quality : values()) {
+            if (quality.name().equalsIgnoreCase(name)) {
+                return quality;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Picks the {@link Quality} from how long frames take to draw. It keeps the draw times of the
+ * last {@link #WINDOW} frames and looks at their 95th percentile every {@link #EVALUATE_EVERY}
+ * frames:
+ * <ul>
+ * <li>Over the budget (three quarters of a frame, so ticks and input handling keep the rest)
+ * it drops a tier at once, without waiting for a full window.</li>
+ * <li>Under half the budget for a whole window and then some, it climbs back a tier. A climb
+ * that is undone before a full window has passed makes the next one wait twice as long, so a
+ * machine on the edge settles instead of flickering between two tiers.</li>
+ * </ul>
+ * Samples are dropped on every change, since they were taken at the old tier.
+ * <p>
+ * {@link #record} is called by whichever thread draws; the tier can be read from any thread.
+ */
+final class QualityGovernor {
+    private static final int WINDOW = 120;
+    private static final int EVALUATE_EVERY = 30;
+    private static final double BUDGET_SHARE = 0.75;
+    private static final double HEADROOM_SHARE = 0.5;
+    // Evaluations in a row with headroom before climbing; 4 s at 60 fps, doubled by each failed climb
+    private static final int CALM_EVALUATIONS = 8;
+    private static final int MAX_CALM_EVALUATIONS = 128;
+
+    private final long budgetNanos;
+    // Draw times since the last change, oldest overwritten once there are WINDOW of them
+    private final long[] samples = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private int sinceEvaluation;
+
+    private int calmEvaluations;
+    private int calmNeeded = CALM_EVALUATIONS;
+    // Set by a climb until the new tier has held for a full window
+    private boolean climbed;
+
+    private volatile Quality quality = Quality.FULL;
+    private volatile double percentileMillis;
+
+    /** A governor for frames drawn at the given rate, starting at {@link Quality#FULL}. */
+    QualityGovernor(int framesPerSecond) {
+        budgetNanos = (long) (1_000_000_000.0 / framesPerSecond * BUDGET_SHARE);
+    }
+
+    /** Adds the time one frame took to draw, and changes the tier if it is time to. */
+    void record(long drawNanos) {
+        samples[nextSample] = drawNanos;
+        nextSample = (nextSample + 1) % WINDOW;
+        sampleCount = Math.min(WINDOW, sampleCount + 1);
+        if (++sinceEvaluation >= EVALUATE_EVERY) {
+            sinceEvaluation = 0;
+            evaluate();
+        }
+    }
+
+    private void evaluate() {
+        int n = sampleCount;
+        System.arraycopy(samples, 0, sorted, 0, n);
+        Arrays.sort(sorted, 0, n);
+        long p95 = sorted[Math.min(n - 1, n * 95 / 100)];
+        percentileMillis = p95 / 1e6;
+
+        if (p95 > budgetNanos) {
+            calmEvaluations = 0;
+            if (quality.ordinal() < Quality.MINIMAL.ordinal()) {
+                if (climbed) {
+                    calmNeeded = Math.min(MAX_CALM_EVALUATIONS, calmNeeded * 2);
+                }
+                change(Quality.values()[quality.ordinal() + 1]);
+            }
+            return;
+        }
+        if (n < WINDOW) {
+            return;
+        }
+        climbed = false;
+        if (p95 < budgetNanos * HEADROOM_SHARE && quality != Quality.FULL) {
+            if (++calmEvaluations >= calmNeeded) {
+                change(Quality.values()[quality.ordinal() - 1]);
+                climbed = true;
+            }
+        } else {
+            calmEvaluations = 0;
+        }
+    }
+
+    private void change(Quality to) {
+        quality = to;
+        sampleCount = 0;
+        nextSample = 0;
+        calmEvaluations = 0;
+    }
+
+    Quality getQuality() {
+        return quality;
+    }
+
+    /** The 95th percentile draw time at the last evaluation. */
+    double getPercentileMillis() {
+        return percentileMillis;
+    }
+}
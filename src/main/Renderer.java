@@ -0,0 +1,27 @@
+package main;
+
+import java.awt.Graphics2D;
+
+/**
+ * Draws the play scene from a {@link PlayScene}. A renderer only reads the scene, so backends
+ * can be swapped freely (--renderer); {@link RendererBenchmark} compares them on a machine.
+ */
+interface Renderer {
+    /** The name --renderer picks it by. */
+    String getName();
+
+    /**
+     * Draws the scene into g2, which is in logical coordinates. Only what lies in its clip
+     * has to be drawn; the rest of the target is left as it was.
+     */
+    void draw(Graphics2D g2, PlayScene scene);
+
+    /** The renderer with the given name, or null when there is none. */
+    static Renderer forName(String name) {
+        switch (name) {
+            case Graphics2DRenderer.NAME: return new Graphics2DRenderer();
+            case PixelRenderer.NAME: return new PixelRenderer();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package main;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.util.Arrays;
+
+import javax.swing.JPanel;
+
+import engine.BotInput;
+import engine.GameEngine;
+
+/**
+ * Compares the renderers on this machine. A bot plays the same game for each renderer and
+ * every frame is drawn twice into an image like the screen's back buffer: once through the
+ * damage of the frame, as GamePanel draws it, and once in full. Works headless too, where the
+ * target is a plain software image. The game is shown the way a replay is, so no sounds play.
+ *
+ * <pre>
+ * java main.RendererBenchmark [--frames N] [--seed S] [--scale X]
+ * </pre>
+ */
+public class RendererBenchmark {
+    // Frames drawn before measuring, so images are cached and the JIT has settled
+    private static final int WARMUP_FRAMES = 300;
+    // --renderer auto runs at launch, so it gets by with a short look
+    private static final int QUICK_WARMUP_FRAMES = 60;
+
+    /** Frame times of one renderer, in milliseconds. */
+    static final class Result {
+        final String name;
+        final double meanFrame, p95Frame, meanFull, p95Full;
+
+        Result(String name, long[] frame, long[] full) {
+            this.name = name;
+            Arrays.sort(frame);
+            Arrays.sort(full);
+            meanFrame = mean(frame);
+            p95Frame = frame[frame.length * 95 / 100] / 1e6;
+            meanFull = mean(full);
+            p95Full = full[full.length * 95 / 100] / 1e6;
+        }
+
+        private static double mean(long[] nanos) {
+            return Arrays.stream(nanos).average().orElse(0) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s frame %.3f ms mean, %.3f ms p95 | full %.3f ms mean, %.3f ms p95",
+                    name, meanFrame, p95Frame, meanFull, p95Full);
+        }
+    }
+
+    /** Plays warmup and then frames frames from the seed and times a renderer on the latter. */
+    static Result run(Renderer renderer, int warmup, int frames, long seed) {
+        PlayManager pm = new PlayManager(new GameEngine(seed));
+        pm.setRenderer(renderer);
+        pm.gameState = GameState.PLAYING;
+        BotInput bot = new BotInput();
+        DamageRegion damage = new DamageRegion(GamePanel.WIDTH, GamePanel.HEIGHT);
+        double scale = Viewport.getScale();
+        Image target = createTarget((int) Math.ceil(GamePanel.WIDTH * scale), (int) Math.ceil(GamePanel.HEIGHT * scale));
+
+        long[] frameNanos = new long[frames];
+        long[] fullNanos = new long[frames];
+        for (int f = -warmup; f < frames; f++) {
+            if (pm.engine.isGameOver()) {
+                pm.engine.reset();
+            }
+            // The bot moves every third tick, about as busy as a quick player
+            pm.engine.tick(f % 3 == 0 ? bot.nextInput(pm.engine) : 0);
+            pm.updateReplay();
+            pm.collectDamage(damage);
+
+            Graphics2D g2 = (Graphics2D) target.getGraphics();
+            g2.scale(scale, scale);
+            long start = System.nanoTime();
+            if (damage.isFull()) {
+                pm.draw(g2);
+            } else {
+                for (int i = 0; i < damage.size(); i++) {
+                    Graphics2D clipped = (Graphics2D) g2.create();
+                    damage.clip(clipped, i, scale == 1 ? 0 : 1);
+                    pm.draw(clipped);
+                    clipped.dispose();
+                }
+            }
+            long drawn = System.nanoTime();
+            pm.draw(g2);
+            long end = System.nanoTime();
+            g2.dispose();
+            damage.clear();
+
+            if (f >= 0) {
+                frameNanos[f] = drawn - start;
+                fullNanos[f] = end - drawn;
+            }
+        }
+        target.flush();
+        return new Result(renderer.getName(), frameNanos, fullNanos);
+    }
+
+    /** Briefly times every renderer and returns the one with the fastest frames. */
+    static Renderer pickFastest(int frames) {
+        Renderer best = null;
+        double bestTime = Double.MAX_VALUE;
+        for (String name : new String[] {Graphics2DRenderer.NAME, PixelRenderer.NAME}) {
+            Renderer renderer = Renderer.forName(name);
+            Result result = run(renderer, QUICK_WARMUP_FRAMES, frames, 1);
+            System.out.println("Renderer " + result);
+            if (result.meanFrame < bestTime) {
+                bestTime = result.meanFrame;
+                best = renderer;
+            }
+        }
+        return best;
+    }
+
+    // The screen's back buffer is a volatile image; without a screen a software image stands in
+    private static Image createTarget(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return Layer.createImage(width, height, true);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleVolatileImage(width, height);
+    }
+
+    public static void main(String[] args) {
+        int frames = 3000;
+        long seed = 1;
+        double scale = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--frames": frames = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--scale": scale = Double.parseDouble(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (scale != 1) {
+            // The viewport is sized from a component; a bare panel of the scaled size will do
+            JPanel screen = new JPanel();
+            screen.setSize((int) Math.round(GamePanel.WIDTH * scale), (int) Math.round(GamePanel.HEIGHT * scale));
+            Viewport.fit(screen);
+        }
+        System.out.printf("%d frames at scale %.2f%s%n", frames, Viewport.getScale(),
+                GraphicsEnvironment.isHeadless() ? ", headless" : "");
+
+        Result best = null;
+        for (String name : new String[] {Graphics2DRenderer.NAME, PixelRenderer.NAME}) {
+            Result result = run(Renderer.forName(name), WARMUP_FRAMES, frames, seed);
+            System.out.println(result);
+            if (best == null || result.meanFrame < best.meanFrame) {
+                best = result;
+            }
+        }
+        System.out.println("Fastest here: --renderer " + best.name);
+        System.exit(0);
+    }
+}
@@ -2,12 +2,29 @@ package main;
 
 import java.net.URL;
 import javax.sound.sampled.*;
-import javax.sound.sampled.LineEvent.Type;
 
+/**
+ * The game's sound effects and music. Playing, pausing and the rest only queue a command for
+ * the {@link AudioMixer}'s thread, so they never wait on Java Sound; they are meant to be
+ * called from the game loop's thread once the game is running. Loading the effects and opening
+ * the audio device happen in {@link #loadEffects}, before then.
+ */
 public class Sound {
-    private Clip musicClip;
+    /** What the sounds are decoded to and mixed in: the format of the sound files. */
+    static final AudioFormat OUTPUT_FORMAT = new AudioFormat(48000f, 16, 2, true, false);
+
+    // One mixer and output line for every Sound: the effects and the music go through it.
+    // Opened once by loadEffects; null before then and without an audio device.
+    private static volatile AudioMixer mixer;
+    private static boolean mixerOpened;
+
     private URL[] url = new URL[10];
-    private long clipPosition = 0;
+    // Decoded effects by index, loaded by loadEffects or on first play
+    private final SoundEffect[] effects = new SoundEffect[url.length];
+    private final boolean[] effectLoaded = new boolean[url.length];
+    // The track streaming to the mixer, and which one it is
+    private MusicStream music;
+    private int musicIndex = -1;
     private boolean isPaused = false;
 
     public Sound() {
@@ -25,94 +42,127 @@ public class Sound {
     public void play(int i, boolean isMusic) {
         try {
             if (isMusic) {
-                if (musicClip != null) {
-                    musicClip.close();
+                // Streamed: the file is (re)opened on the decoder's thread, not here
+                if (music(i) != null) {
+                    mixer.setMusicLooping(false);
+                    mixer.playMusic();
                 }
-                
-                AudioInputStream ais = AudioSystem.getAudioInputStream(url[i]);
-                musicClip = AudioSystem.getClip();
-                musicClip.open(ais);
-                
-                musicClip.addLineListener(new LineListener() {
-                    @Override
-                    public void update(LineEvent event) {
-                        if (event.getType() == Type.STOP && !isPaused) {
-                            musicClip.close();
-                        }
-                    }
-                });
-                
-                ais.close();
-                musicClip.start();
                 isPaused = false;
             } else {
-                // For sound effects
-                AudioInputStream ais = AudioSystem.getAudioInputStream(url[i]);
-                Clip clip = AudioSystem.getClip();
-                clip.open(ais);
-                
-                clip.addLineListener(new LineListener() {
-                    @Override
-                    public void update(LineEvent event) {
-                        if (event.getType() == Type.STOP) {
-                            clip.close();
-                        }
-                    }
-                });
-                
-                clip.start();
-                ais.close();
+                playEffect(i, 1f);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     
-    public void setVolume(float volume) { // volume between 0.0 and 1.0
-        if (musicClip != null) {
-            FloatControl gainControl = (FloatControl) musicClip.getControl(FloatControl.Type.MASTER_GAIN);
-            float dB = (float) (Math.log(volume) / Math.log(10.0) * 20.0);
-            gainControl.setValue(dB);
+    /** Starts sound effect i at a gain of 0 to 1, mixed in with whatever else is playing. */
+    public void playEffect(int i, float gain) {
+        SoundEffect effect = effect(i);
+        AudioMixer m = mixer;
+        if (effect != null && m != null) {
+            m.play(effect, gain);
         }
     }
 
-    public void pause() {
-        if (musicClip != null && musicClip.isRunning()) {
-            clipPosition = musicClip.getMicrosecondPosition();
-            musicClip.stop();
-            isPaused = true;
+    /** Decodes every sound effect and opens the mixer now, so playing one costs next to nothing. */
+    public void loadEffects() {
+        openMixer();
+        // (0 is the music)
+        for (int i = 1; i < url.length; i++) {
+            if (url[i] != null) {
+                effect(i);
+            }
         }
     }
 
-    public void resume() {
-        if (musicClip != null && isPaused) {
+    // Opens the mixer the first time; sounds are played only through the field, without a lock
+    private static synchronized void openMixer() {
+        if (!mixerOpened) {
+            mixerOpened = true;
             try {
-                if (!musicClip.isOpen()) {
-                    AudioInputStream ais = AudioSystem.getAudioInputStream(url[0]);
-                    musicClip.open(ais);
-                    ais.close();
-                }
-                musicClip.setMicrosecondPosition(clipPosition);
-                musicClip.start();
-                musicClip.loop(Clip.LOOP_CONTINUOUSLY);
-                isPaused = false;
+                mixer = AudioMixer.open();
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                System.err.println("No audio output: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Output latency, underruns and stolen voices, or null when nothing can play. */
+    public String audioSummary() {
+        AudioMixer m = mixer;
+        return m == null ? null : m.summary();
+    }
+
+    // The effect, loaded the first time; null if it can't be
+    private SoundEffect effect(int i) {
+        if (!effectLoaded[i]) {
+            effectLoaded[i] = true;
+            if (url[i] == null) {
+                System.err.println("Sound effect " + i + " is missing");
+                return null;
+            }
+            try {
+                effects[i] = SoundEffect.load(url[i]);
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
+        return effects[i];
+    }
+
+    // The stream of track i, handed to the mixer; null if it can't play
+    private MusicStream music(int i) {
+        if (i != musicIndex) {
+            musicIndex = i;
+            if (music != null) {
+                music.close();
+                music = null;
+            }
+            AudioMixer m = mixer;
+            if (url[i] == null) {
+                System.err.println("Music " + i + " is missing");
+            } else if (m != null) {
+                music = new MusicStream(url[i]);
+                m.setMusic(music);
+            }
+        }
+        return music;
+    }
+
+    public void setVolume(float volume) { // volume between 0.0 and 1.0
+        AudioMixer m = mixer;
+        if (m != null) {
+            m.setMusicGain(volume);
+        }
+    }
+
+    public void pause() {
+        // (The stream's own state would lag behind commands still queued)
+        if (music != null && !isPaused) {
+            mixer.pauseMusic();
+            isPaused = true;
+        }
+    }
+
+    public void resume() {
+        if (music != null && isPaused) {
+            // Carries on from the very sample it was paused at
+            mixer.resumeMusic();
+            mixer.setMusicLooping(true);
+            isPaused = false;
+        }
     }
 
     public void loop() {
-        if (musicClip != null && musicClip.isOpen()) {
-            musicClip.loop(Clip.LOOP_CONTINUOUSLY);
+        if (music != null) {
+            mixer.setMusicLooping(true);
         }
     }
 
     public void stop() {
-        if (musicClip != null) {
-            musicClip.stop();
-            musicClip.close();
-            clipPosition = 0;
+        if (music != null) {
+            mixer.stopMusic();
             isPaused = false;
         }
     }
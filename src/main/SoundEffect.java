@@ -0,0 +1,80 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * One sound effect, decoded once into samples in {@link Sound#OUTPUT_FORMAT}: interleaved
+ * 16-bit stereo at the mixer's rate, ready for {@link AudioMixer} to add into its output.
+ * Files in another format are converted when loaded; mono is doubled and other rates are
+ * resampled linearly, which short effects don't suffer from.
+ */
+final class SoundEffect {
+    private final short[] samples;
+
+    private SoundEffect(short[] samples) {
+        this.samples = samples;
+    }
+
+    /** Reads and decodes a sound file. */
+    static SoundEffect load(URL url) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(url)) {
+            AudioFormat from = source.getFormat();
+            // 16-bit little-endian PCM at the file's own rate and channels; Java Sound doesn't resample
+            AudioFormat pcm16 = new AudioFormat(from.getSampleRate(), 16, from.getChannels(), true, false);
+            try (AudioInputStream decoded = from.matches(pcm16) ? source : AudioSystem.getAudioInputStream(pcm16, source)) {
+                return new SoundEffect(toOutput(readAll(decoded), pcm16));
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[16384];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    // 16-bit little-endian PCM in any rate and channel count to interleaved stereo at the output rate
+    private static short[] toOutput(byte[] pcm, AudioFormat format) {
+        int channels = format.getChannels();
+        int frames = pcm.length / (2 * channels);
+        float outputRate = Sound.OUTPUT_FORMAT.getSampleRate();
+        double step = format.getSampleRate() / outputRate;
+        int outFrames = (int) (frames / step);
+        short[] out = new short[outFrames * 2];
+        for (int f = 0; f < outFrames; f++) {
+            double at = f * step;
+            int i = (int) at;
+            double t = at - i;
+            int j = Math.min(frames - 1, i + 1);
+            for (int c = 0; c < 2; c++) {
+                // Mono goes to both sides; past two channels only the front pair is kept
+                int channel = Math.min(c, channels - 1);
+                double a = sample(pcm, i * channels + channel);
+                double b = sample(pcm, j * channels + channel);
+                out[f * 2 + c] = (short) Math.round(a + (b - a) * t);
+            }
+        }
+        return out;
+    }
+
+    private static short sample(byte[] pcm, int index) {
+        return (short) ((pcm[index * 2] & 0xFF) | pcm[index * 2 + 1] << 8);
+    }
+
+    /** Interleaved left and right samples; not to be changed. */
+    short[] getSamples() {
+        return samples;
+    }
+}
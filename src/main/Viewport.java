@@ -0,0 +1,134 @@
+package main;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import mino.Block;
+import mino.BlockTiles;
+
+/**
+ * Maps the game's fixed logical screen ({@link GamePanel#WIDTH} x {@link GamePanel#HEIGHT})
+ * onto whatever the window really is: scaled uniformly to fit, centered, with the display's
+ * HiDPI factor folded in. Everything keeps drawing in logical coordinates.
+ * <p>
+ * Shapes and text simply go through the scale on the Graphics2D. Cached images (layers, the
+ * playfield raster, tiles, sprites, glyphs) would be stretched by it, so instead each cache
+ * notices when {@link #getScale()} changed, rasterizes itself again at device resolution once,
+ * and is drawn with {@link #drawImage}, which lands it pixel for pixel. A big screen then only
+ * costs its extra pixels.
+ * <p>
+ * The scale is rounded down to whole device pixels per block, so cells tile without seams.
+ * The state is only changed by the thread that renders.
+ */
+final class Viewport {
+    // Device pixels per logical pixel
+    private static volatile double scale = 1;
+    // Device pixels per component pixel: the display's HiDPI factor
+    private static volatile double componentScale = 1;
+    // Where the logical screen's corner lands, in device pixels
+    private static volatile int offsetX, offsetY;
+    private static int deviceWidth = GamePanel.WIDTH, deviceHeight = GamePanel.HEIGHT;
+
+    private Viewport() {
+    }
+
+    /** Device pixels per logical pixel; cached images are rasterized at this scale. */
+    static double getScale() {
+        return scale;
+    }
+
+    static boolean isLetterboxed() {
+        return offsetX > 0 || offsetY > 0;
+    }
+
+    /**
+     * Fits the logical screen into the component.
+     * Returns true when the scale or placement changed, so the whole screen must be redrawn.
+     */
+    static boolean fit(Component component) {
+        GraphicsConfiguration config = component.getGraphicsConfiguration();
+        double ui = config == null ? 1 : config.getDefaultTransform().getScaleX();
+        int width = (int) Math.round(Math.max(1, component.getWidth()) * ui);
+        int height = (int) Math.round(Math.max(1, component.getHeight()) * ui);
+        if (width == deviceWidth && height == deviceHeight && ui == componentScale) {
+            return false;
+        }
+        deviceWidth = width;
+        deviceHeight = height;
+        componentScale = ui;
+
+        double fit = Math.min(width / (double) GamePanel.WIDTH, height / (double) GamePanel.HEIGHT);
+        double s = fit >= 1.0 / Block.SIZE ? Math.floor(fit * Block.SIZE) / Block.SIZE : fit;
+        offsetX = (width - (int) Math.round(GamePanel.WIDTH * s)) / 2;
+        offsetY = (height - (int) Math.round(GamePanel.HEIGHT * s)) / 2;
+        if (s != scale) {
+            scale = s;
+            BlockTiles.setScale(s);
+        }
+        return true;
+    }
+
+    /**
+     * Switches g2, which has the component's default transform, to logical coordinates.
+     * When the screen doesn't fill the component and clearBars is set, the bars around it
+     * are cleared first.
+     */
+    static void apply(Graphics2D g2, Component component, boolean clearBars) {
+        if (clearBars && isLetterboxed()) {
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, component.getWidth(), component.getHeight());
+        }
+        AffineTransform base = g2.getTransform();
+        double s = scale;
+        g2.setTransform(new AffineTransform(s, 0, 0, s,
+                base.getTranslateX() + offsetX, base.getTranslateY() + offsetY));
+    }
+
+    /** Converts a component x coordinate (a mouse position) to a logical one. */
+    static int toLogicalX(int x) {
+        return (int) Math.floor((x * componentScale - offsetX) / scale);
+    }
+
+    static int toLogicalY(int y) {
+        return (int) Math.floor((y * componentScale - offsetY) / scale);
+    }
+
+    /** The component pixels a logical rectangle covers, rounded outward: {x, y, width, height}. */
+    static void toComponent(int x, int y, int width, int height, int[] bounds) {
+        double s = scale / componentScale;
+        double ox = offsetX / componentScale, oy = offsetY / componentScale;
+        bounds[0] = (int) Math.floor(ox + x * s);
+        bounds[1] = (int) Math.floor(oy + y * s);
+        bounds[2] = (int) Math.ceil(ox + (x + width) * s) - bounds[0];
+        bounds[3] = (int) Math.ceil(oy + (y + height) * s) - bounds[1];
+    }
+
+    /** Creates an image for w x h logical pixels at the current scale. */
+    static BufferedImage createImage(int width, int height, boolean opaque) {
+        double s = scale;
+        return Layer.createImage(Math.max(1, (int) Math.ceil(width * s)), Math.max(1, (int) Math.ceil(height * s)), opaque);
+    }
+
+    /** Draws an image rasterized at the current scale with its corner at logical (x, y). */
+    static void drawImage(Graphics2D g2, BufferedImage image, int x, int y) {
+        drawImage(g2, image, x, y, 0, 0);
+    }
+
+    /**
+     * Draws an image rasterized at the current scale with its corner at logical (x, y) moved
+     * by (dx, dy) device pixels, pixel for pixel. Unscaled, that is a plain drawImage.
+     */
+    static void drawImage(Graphics2D g2, BufferedImage image, int x, int y, int dx, int dy) {
+        double s = scale;
+        if (s == 1) {
+            g2.drawImage(image, x + dx, y + dy, null);
+            return;
+        }
+        // The image's pixels undo the scale on the graphics, which Java2D turns into a plain copy
+        g2.drawImage(image, new AffineTransform(1 / s, 0, 0, 1 / s, x + dx / s, y + dy / s), null);
+    }
+}
@@ -10,12 +10,28 @@ public class Block {
     public int x, y;
     public Color c;
     public static final int SIZE = 30;
+    
+    // Colors of locked cells are stored in the Playfield as an index into this table
+    public static final Color[] PALETTE = {
+        Color.orange, Color.blue, Color.cyan, Color.magenta, Color.red, Color.green
+    };
+    // Index of c in PALETTE, or -1 for a color outside it
+    public int colorId = -1;
     private boolean isGhost = false;
     
     public Block(Color c) {
         this.c = c;
     }
     
+    public Block(int colorId) {
+        setColorId(colorId);
+    }
+    
+    public void setColorId(int colorId) {
+        this.colorId = colorId;
+        this.c = PALETTE[colorId];
+    }
+    
     public void setXY(int x, int y) {
         this.x = x;
         this.y = y;
@@ -26,6 +42,12 @@ public class Block {
     }
     
     public void draw(Graphics2D g2) {
+        // Palette colors come pre-shaded from the tile atlas
+        if (colorId >= 0 && c == PALETTE[colorId]) {
+            BlockTiles.draw(g2, isGhost ? BlockTiles.GHOST : BlockTiles.SOLID, colorId, x, y);
+            return;
+        }
+        
         int margin = 2;
         
         if(isGhost) {
@@ -69,4 +91,4 @@ public class Block {
     public boolean isGhost() {
         return isGhost;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package mino;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Every look a cell can have, drawn once into a single image: one row per variant
+ * and one column per {@link Block#PALETTE} color. Drawing a cell is then one
+ * drawImage from the atlas, with shading and ghost transparency already baked in.
+ * <p>
+ * When the screen is scaled the atlas is drawn again at that scale ({@link #setScale}),
+ * with tiles of whole device pixels, and each tile is drawn onto the scaled graphics
+ * pixel for pixel instead of being stretched.
+ */
+public final class BlockTiles {
+	
+	/** A locked or falling block with its highlight outline ({@link Block#draw}). */
+	public static final int SOLID = 0;
+	/** The flat cell {@link Mino#draw} uses. */
+	public static final int PLAIN = 1;
+	/** The see-through landing preview. */
+	public static final int GHOST = 2;
+	
+	private static final int VARIANTS = 3;
+	
+	// The atlas for one scale; replaced as a whole so a draw never sees half of a change
+	private static final class Atlas {
+		final double scale;
+		final BufferedImage image;
+		final BufferedImage[] tiles = new BufferedImage[VARIANTS * Block.PALETTE.length];
+		
+		Atlas(double scale) {
+			this.scale = scale;
+			int tile = (int) Math.round(Block.SIZE * scale);
+			image = build(scale, tile);
+			for (int variant = 0; variant < VARIANTS; variant++) {
+				for (int color = 0; color < Block.PALETTE.length; color++) {
+					tiles[variant * Block.PALETTE.length + color] = image.getSubimage(color * tile, variant * tile, tile, tile);
+				}
+			}
+		}
+	}
+	
+	private static volatile Atlas atlas = new Atlas(1);
+	
+	private BlockTiles() {}
+	
+	/** Draws the tiles for a screen scaled by the given device pixels per logical pixel. */
+	public static void setScale(double scale) {
+		if (scale != atlas.scale) {
+			atlas = new Atlas(scale);
+		}
+	}
+	
+	public static void draw(Graphics2D g2, int variant, int colorId, int x, int y) {
+		Atlas current = atlas;
+		if (current.scale == 1) {
+			int sx = colorId * Block.SIZE;
+			int sy = variant * Block.SIZE;
+			g2.drawImage(current.image, x, y, x + Block.SIZE, y + Block.SIZE, sx, sy, sx + Block.SIZE, sy + Block.SIZE, null);
+			return;
+		}
+		double s = current.scale;
+		g2.drawImage(current.tiles[variant * Block.PALETTE.length + colorId], new AffineTransform(1 / s, 0, 0, 1 / s, x, y), null);
+	}
+	
+	/** The tile of a cell at the current scale, for drawing it some other way than with {@link #draw}. */
+	public static BufferedImage tile(int variant, int colorId) {
+		return atlas.tiles[variant * Block.PALETTE.length + colorId];
+	}
+	
+	private static BufferedImage build(double scale, int tile) {
+		int width = Block.PALETTE.length * tile;
+		int height = VARIANTS * tile;
+		BufferedImage image;
+		if (GraphicsEnvironment.isHeadless()) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+		} else {
+			image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+		}
+		
+		int margin = 2;
+		int inner = Block.SIZE - margin * 2;
+		Graphics2D g2 = image.createGraphics();
+		for (int i = 0; i < Block.PALETTE.length; i++) {
+			int x = margin;
+			int y = margin;
+			
+			// Solid: fill plus a brighter outline, drawn with the 2px stroke the scene uses for blocks
+			moveToTile(g2, scale, tile, SOLID, i);
+			g2.setStroke(new BasicStroke(2f));
+			g2.setColor(Block.PALETTE[i]);
+			g2.fillRect(x, y, inner, inner);
+			g2.setColor(Block.PALETTE[i].brighter());
+			g2.drawRect(x, y, inner, inner);
+			
+			// Plain
+			moveToTile(g2, scale, tile, PLAIN, i);
+			g2.setColor(Block.PALETTE[i]);
+			g2.fillRect(x, y, inner, inner);
+			
+			// Ghost: 30% fill with a darker 70% outline
+			moveToTile(g2, scale, tile, GHOST, i);
+			g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
+			g2.setColor(Block.PALETTE[i]);
+			g2.fillRect(x, y, inner, inner);
+			g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f));
+			g2.setColor(Block.PALETTE[i].darker());
+			g2.setStroke(new BasicStroke(1));
+			g2.drawRect(x, y, inner, inner);
+			g2.setComposite(AlphaComposite.SrcOver);
+		}
+		g2.dispose();
+		return image;
+	}
+	
+	// Tiles are whole device pixels apart; inside a tile everything is drawn in logical pixels
+	private static void moveToTile(Graphics2D g2, double scale, int tile, int variant, int colorId) {
+		g2.setTransform(new AffineTransform(scale, 0, 0, scale, colorId * tile, variant * tile));
+	}
+}
@@ -0,0 +1,33 @@
+package mino;
+
+/**
+ * One display Mino per shape, built once up front.
+ * A Mino only holds the pixel positions of its blocks, so the same instance is
+ * repositioned for every spawn of its shape instead of building a new one.
+ */
+public class MinoPool {
+	
+	private final Mino[] minos = new Mino[PieceShape.values().length];
+	
+	public MinoPool() {
+		for(PieceShape shape : PieceShape.values()) {
+			minos[shape.ordinal()] = create(shape);
+		}
+	}
+	
+	public Mino get(PieceShape shape) {
+		return minos[shape.ordinal()];
+	}
+	
+	private static Mino create(PieceShape shape) {
+		switch (shape) {
+			case L1: return new Mino_L1();
+			case L2: return new Mino_L2();
+			case SQUARE: return new Mino_Square();
+			case BAR: return new Mino_Bar();
+			case T: return new Mino_T();
+			case Z1: return new Mino_Z1();
+			default: return new Mino_Z2();
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package mino;
+
+import java.util.Arrays;
+
+/**
+ * Immutable shape tables for the seven minos.
+ * Every orientation lists the cell offsets of blocks 0-3 relative to block 0 (the pivot),
+ * and is precomputed into row bitmasks so a placement test is one AND per row.
+ * Orientations are indexed 0-3 and follow Mino.direction 1-4 (clockwise).
+ */
+public enum PieceShape {
+
+	//	o		o o o		o o		    o
+	//	o		o		  o		o o o
+	//	o o					  o
+	L1((byte) 0, Kicks.JLSTZ, new int[][] {
+		{0, 0,  0, -1,  0, 1,  1, 1},
+		{0, 0,  1, 0,  -1, 0,  -1, 1},
+		{0, 0,  0, 1,  0, -1,  -1, -1},
+		{0, 0,  -1, 0,  1, 0,  1, -1},
+	}),
+
+	//	  o		o		o o		o o o
+	//	  o		o o o	o		    o
+	//	o o				o
+	L2((byte) 1, Kicks.JLSTZ, new int[][] {
+		{0, 0,  0, -1,  0, 1,  -1, 1},
+		{0, 0,  1, 0,  -1, 0,  -1, -1},
+		{0, 0,  0, 1,  0, -1,  1, -1},
+		{0, 0,  -1, 0,  1, 0,  1, 1},
+	}),
+
+	//	o o
+	//	o o
+	SQUARE((byte) 0, Kicks.O, new int[][] {
+		{0, 0,  0, 1,  1, 0,  1, 1},
+		{0, 0,  0, 1,  1, 0,  1, 1},
+		{0, 0,  0, 1,  1, 0,  1, 1},
+		{0, 0,  0, 1,  1, 0,  1, 1},
+	}),
+
+	//	o o o o		o
+	//				o
+	//				o
+	//				o
+	BAR((byte) 2, Kicks.I, new int[][] {
+		{0, 0,  -1, 0,  1, 0,  2, 0},
+		{0, 0,  0, -1,  0, 1,  0, 2},
+		{0, 0,  -1, 0,  1, 0,  2, 0},
+		{0, 0,  0, -1,  0, 1,  0, 2},
+	}),
+
+	//	  o		o		o o o	  o
+	//	o o o	o o		  o		o o
+	//			o				  o
+	T((byte) 3, Kicks.JLSTZ, new int[][] {
+		{0, 0,  0, -1,  -1, 0,  1, 0},
+		{0, 0,  1, 0,  0, -1,  0, 1},
+		{0, 0,  0, 1,  1, 0,  -1, 0},
+		{0, 0,  -1, 0,  0, 1,  0, -1},
+	}),
+
+	//	  o		o o
+	//	o o		  o o
+	//	o
+	Z1((byte) 4, Kicks.SZ, new int[][] {
+		{0, 0,  0, -1,  -1, 0,  -1, 1},
+		{0, 0,  1, 0,  0, -1,  -1, -1},
+		{0, 0,  0, -1,  -1, 0,  -1, 1},
+		{0, 0,  1, 0,  0, -1,  -1, -1},
+	}),
+
+	//	o		  o o
+	//	o o		o o
+	//	  o
+	Z2((byte) 5, Kicks.SZ, new int[][] {
+		{0, 0,  0, -1,  1, 0,  1, 1},
+		{0, 0,  -1, 0,  0, -1,  1, -1},
+		{0, 0,  0, -1,  1, 0,  1, 1},
+		{0, 0,  -1, 0,  0, -1,  1, -1},
+	});
+
+	/** Index into {@link Block#PALETTE}. */
+	public final byte colorId;
+
+	private final int[][] dx = new int[4][4];
+	private final int[][] dy = new int[4][4];
+	private final int[] left = new int[4];
+	private final int[] top = new int[4];
+	private final int[] width = new int[4];
+	private final int[][] rowMasks = new int[4][];
+	private final int[][] bottoms = new int[4][];
+	private final int[][][] kicks;
+
+	PieceShape(byte colorId, int[][][] kicks, int[][] cells) {
+		this.colorId = colorId;
+		this.kicks = kicks;
+
+		for (int o = 0; o < 4; o++) {
+			int minX = 0, maxX = 0, minY = 0, maxY = 0;
+			for (int i = 0; i < 4; i++) {
+				dx[o][i] = cells[o][i * 2];
+				dy[o][i] = cells[o][i * 2 + 1];
+				minX = Math.min(minX, dx[o][i]);
+				maxX = Math.max(maxX, dx[o][i]);
+				minY = Math.min(minY, dy[o][i]);
+				maxY = Math.max(maxY, dy[o][i]);
+			}
+			left[o] = minX;
+			top[o] = minY;
+			width[o] = maxX - minX + 1;
+			rowMasks[o] = new int[maxY - minY + 1];
+			bottoms[o] = new int[width[o]];
+			Arrays.fill(bottoms[o], Integer.MIN_VALUE);
+			for (int i = 0; i < 4; i++) {
+				rowMasks[o][dy[o][i] - minY] |= 1 << (dx[o][i] - minX);
+				int k = dx[o][i] - minX;
+				bottoms[o][k] = Math.max(bottoms[o][k], dy[o][i]);
+			}
+		}
+	}
+
+	public int dx(int orientation, int block) {
+		return dx[orientation][block];
+	}
+
+	public int dy(int orientation, int block) {
+		return dy[orientation][block];
+	}
+
+	/** Column offset of the leftmost cell, relative to the pivot. */
+	public int left(int orientation) {
+		return left[orientation];
+	}
+
+	/** Row offset of the topmost cell, relative to the pivot. */
+	public int top(int orientation) {
+		return top[orientation];
+	}
+
+	public int width(int orientation) {
+		return width[orientation];
+	}
+
+	/** Row offset of the lowest cell in column {@code left + k}, relative to the pivot. */
+	public int bottom(int orientation, int k) {
+		return bottoms[orientation][k];
+	}
+
+	/** One mask per occupied row, top to bottom, with bit 0 at {@link #left(int)}. */
+	int[] rowMasks(int orientation) {
+		return rowMasks[orientation];
+	}
+
+	/** Pivot offsets {dx, dy} to try, in order, when rotating clockwise out of the orientation. */
+	public int[][] kicks(int orientation) {
+		return kicks[orientation];
+	}
+
+	/**
+	 * Clockwise wall kick offsets taken from SRS (0->R, R->2, 2->L, L->0), converted to
+	 * screen coordinates where y grows downwards. They are an approximation of SRS, not SRS
+	 * itself: the minos keep their original pivots (block 0) rather than the SRS rotation
+	 * centres, so a kick doesn't land a piece exactly where SRS would. The bar and the Z
+	 * shapes have only two distinct orientations here (0 and 2, 1 and 3 are the same cells),
+	 * so they use the 0->R and R->2 kicks for both of theirs, and kick the same way from
+	 * states that look the same.
+	 */
+	private static final class Kicks {
+		static final int[][][] JLSTZ = {
+			{{0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}},
+			{{0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},
+			{{0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},
+			{{0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}},
+		};
+		static final int[][][] SZ = {
+			JLSTZ[0], JLSTZ[1], JLSTZ[0], JLSTZ[1],
+		};
+		static final int[][][] I = {
+			{{0, 0}, {-2, 0}, {1, 0}, {-2, 1}, {1, -2}},
+			{{0, 0}, {-1, 0}, {2, 0}, {-1, -2}, {2, 1}},
+			{{0, 0}, {-2, 0}, {1, 0}, {-2, 1}, {1, -2}},
+			{{0, 0}, {-1, 0}, {2, 0}, {-1, -2}, {2, 1}},
+		};
+		static final int[][][] O = {
+			{{0, 0}}, {{0, 0}}, {{0, 0}}, {{0, 0}},
+		};
+	}
+}
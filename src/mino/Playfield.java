@@ -0,0 +1,173 @@
+package mino;
+
+/**
+ * The locked cells of the play area, stored as one bitmask per row.
+ * Bit {@code c} of a row is set when column {@code c} is filled, and a
+ * parallel byte grid keeps the palette index of every filled cell.
+ */
+public class Playfield {
+
+	public static final int COLS = 12;
+	public static final int ROWS = 20;
+	public static final int FULL_MASK = (1 << COLS) - 1;
+
+	private final int[] rows = new int[ROWS];
+	private final byte[] colors = new byte[ROWS * COLS];
+	// Topmost filled row of every column, ROWS when the column is empty
+	private final int[] heights = new int[COLS];
+	// Bumped on every change so cached results (like the ghost) know when to recompute
+	private int version;
+
+	public Playfield() {
+		clear();
+	}
+
+	public void clear() {
+		for (int r = 0; r < ROWS; r++) {
+			rows[r] = 0;
+		}
+		for (int i = 0; i < colors.length; i++) {
+			colors[i] = 0;
+		}
+		for (int c = 0; c < COLS; c++) {
+			heights[c] = ROWS;
+		}
+		version++;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public int getHeight(int col) {
+		return heights[col];
+	}
+
+	public int contentHash() {
+		int h = 1;
+		for (int r = 0; r < ROWS; r++) {
+			h = 31 * h + rows[r];
+		}
+		for (int i = 0; i < colors.length; i++) {
+			h = 31 * h + colors[i];
+		}
+		return h;
+	}
+
+	public int getRow(int row) {
+		return rows[row];
+	}
+
+	public byte getColor(int col, int row) {
+		return colors[row * COLS + col];
+	}
+
+	// True only for filled cells inside the field; walls and the area above the top are empty
+	public boolean isFilled(int col, int row) {
+		if (col < 0 || col >= COLS || row < 0 || row >= ROWS) {
+			return false;
+		}
+		return (rows[row] & (1 << col)) != 0;
+	}
+
+	/**
+	 * Tests whether the shape in the given orientation fits with its pivot at (col, row).
+	 * Walls and the floor block it, the area above the top row does not.
+	 */
+	public boolean fits(PieceShape shape, int orientation, int col, int row) {
+		int left = col + shape.left(orientation);
+		if (left < 0 || left + shape.width(orientation) > COLS) {
+			return false;
+		}
+		int[] masks = shape.rowMasks(orientation);
+		int top = row + shape.top(orientation);
+		for (int r = 0; r < masks.length; r++) {
+			int y = top + r;
+			if (y >= ROWS) {
+				return false;
+			}
+			if (y >= 0 && (rows[y] & (masks[r] << left)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the row the pivot comes to rest on when the shape drops straight down from (col, row).
+	 * Uses the column heights and the shape's bottom profile, and only steps cell by cell
+	 * when the piece is already below the surface of one of its columns (tucked under an overhang).
+	 */
+	public int dropRow(PieceShape shape, int orientation, int col, int row) {
+		int left = col + shape.left(orientation);
+		int landing = ROWS;
+		for (int k = 0; k < shape.width(orientation); k++) {
+			int bottom = shape.bottom(orientation, k);
+			int height = heights[left + k];
+			if (row + bottom >= height) {
+				while (fits(shape, orientation, col, row + 1)) {
+					row++;
+				}
+				return row;
+			}
+			landing = Math.min(landing, height - 1 - bottom);
+		}
+		return landing;
+	}
+
+	/**
+	 * Fills one cell. Cells outside the field (such as above the top row) are dropped.
+	 * Returns the bit of the touched row, to collect for {@link #clearFullRows(int)}.
+	 */
+	public int lock(int col, int row, byte color) {
+		if (row < 0 || row >= ROWS || col < 0 || col >= COLS) {
+			return 0;
+		}
+		rows[row] |= 1 << col;
+		colors[row * COLS + col] = color;
+		heights[col] = Math.min(heights[col], row);
+		version++;
+		return 1 << row;
+	}
+
+	/**
+	 * Removes every full row among the touched rows and shifts the rows above down.
+	 * Returns a bitmask of the cleared rows, indexed as they were before the shift.
+	 */
+	public int clearFullRows(int touchedRows) {
+		int cleared = 0;
+		// Go from top to bottom so the indices of the rows still to check stay valid
+		for (int r = 0; r < ROWS; r++) {
+			if ((touchedRows & (1 << r)) == 0 || rows[r] != FULL_MASK) {
+				continue;
+			}
+			System.arraycopy(rows, 0, rows, 1, r);
+			rows[0] = 0;
+			System.arraycopy(colors, 0, colors, COLS, r * COLS);
+			for (int c = 0; c < COLS; c++) {
+				colors[c] = 0;
+			}
+			cleared |= 1 << r;
+		}
+		if (cleared != 0) {
+			updateHeights();
+			version++;
+		}
+		return cleared;
+	}
+
+	private void updateHeights() {
+		int remaining = FULL_MASK;
+		for (int c = 0; c < COLS; c++) {
+			heights[c] = ROWS;
+		}
+		for (int r = 0; r < ROWS && remaining != 0; r++) {
+			int found = rows[r] & remaining;
+			remaining &= ~found;
+			while (found != 0) {
+				heights[Integer.numberOfTrailingZeros(found)] = r;
+				found &= found - 1;
+			}
+		}
+	}
+}